@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.benchmarks;
+
+import org.adw.library.widgets.discreteseekbar.internal.text.LabelBuffer;
+import org.adw.library.widgets.discreteseekbar.internal.text.LabelCache;
+import org.adw.library.widgets.discreteseekbar.internal.text.LabelFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Formatter;
+import java.util.Locale;
+
+/**
+ * convertValueToMessage: the compiled {@link LabelFormat} against the {@link Formatter} it replaced,
+ * and the {@link LabelCache} lookup.
+ * <p>
+ * Use the gc profiler numbers (gc.alloc.rate.norm) to check the compiled path doesn't allocate.
+ * </p>
+ */
+@State(Scope.Thread)
+public class LabelFormatBenchmark {
+    //%x is not compiled, it measures the Formatter fallback
+    @Param({"%d", "%,d", "Value: %05d%%", "%x"})
+    String pattern;
+
+    @Param({"en_US", "ar_EG"})
+    String locale;
+
+    private static final int MAX = 100;
+
+    int value;
+    LabelFormat labelFormat;
+    LabelBuffer buffer;
+    LabelCache cache;
+    Formatter formatter;
+    StringBuilder formatBuilder;
+    Object[] args;
+
+    @Setup
+    public void setup() {
+        String[] parts = locale.split("_");
+        Locale l = new Locale(parts[0], parts[1]);
+        labelFormat = LabelFormat.compile(pattern, l);
+        buffer = new LabelBuffer();
+        cache = new LabelCache();
+        cache.reset(0, MAX, l);
+        for (int i = 0; i <= MAX; i++) {
+            cache.put(i, labelFormat.format(i));
+        }
+        formatBuilder = new StringBuilder();
+        formatter = new Formatter(formatBuilder, l);
+        args = new Object[1];
+    }
+
+    private int nextValue() {
+        value = value == MAX ? 0 : value + 1;
+        return value;
+    }
+
+    @Benchmark
+    public LabelBuffer compiled() {
+        labelFormat.format(nextValue(), buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public String formatter() {
+        formatBuilder.setLength(0);
+        args[0] = nextValue();
+        return formatter.format(pattern, args).toString();
+    }
+
+    @Benchmark
+    public CharSequence cached() {
+        return cache.get(nextValue());
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.benchmarks;
+
+import org.adw.library.widgets.discreteseekbar.internal.math.ColorMath;
+import org.adw.library.widgets.discreteseekbar.internal.math.MarkerGeometry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The per animation frame math of the MarkerDrawable: computePath geometry and blendColors
+ */
+@State(Scope.Thread)
+public class MarkerBenchmark {
+    private static final int FRAMES = 16;
+
+    final MarkerGeometry geometry = new MarkerGeometry();
+    final float[] corners = new float[8];
+    int frame;
+
+    private float nextScale() {
+        frame = (frame + 1) % (FRAMES + 1);
+        return frame / (float) FRAMES;
+    }
+
+    @Benchmark
+    public float[] computePath() {
+        geometry.compute(120, 160, 160, 36, 16, nextScale());
+        geometry.fillCorners(corners);
+        return corners;
+    }
+
+    @Benchmark
+    public int blendColors() {
+        return ColorMath.blendColors(0xff009688, 0xff939393, nextScale());
+    }
+}
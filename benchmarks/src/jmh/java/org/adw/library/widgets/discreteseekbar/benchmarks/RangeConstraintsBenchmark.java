@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.adw.library.widgets.discreteseekbar.benchmarks;
+
+import org.adw.library.widgets.discreteseekbar.internal.math.RangeConstraints;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Resolving a dragged thumb against the others, for every range behavior.
+ * The dragged thumb sweeps the whole track so it keeps running into its neighbours.
+ */
+@State(Scope.Thread)
+public class RangeConstraintsBenchmark {
+    private static final long MAX = 1000;
+    private static final long STEP = 7;
+
+    @Param({"block", "push", "swap"})
+    String behavior;
+
+    @Param({"2", "8"})
+    int thumbs;
+
+    RangeConstraints constraints;
+    long[] values;
+    int index;
+    long wanted;
+    long direction = STEP;
+
+    @Setup
+    public void setup() {
+        constraints = new RangeConstraints();
+        if ("push".equals(behavior)) {
+            constraints.setBehavior(RangeConstraints.PUSH);
+        } else if ("swap".equals(behavior)) {
+            constraints.setBehavior(RangeConstraints.SWAP);
+        }
+        constraints.setMinGap(10);
+        constraints.setMaxSpan(MAX / 2);
+        values = new long[thumbs];
+        for (int i = 0; i < thumbs; i++) {
+            values[i] = i * MAX / (2 * thumbs);
+        }
+        index = 0;
+        wanted = values[0];
+    }
+
+    @Benchmark
+    public int resolve() {
+        if (wanted + direction < 0 || wanted + direction > MAX) {
+            direction = -direction;
+        }
+        wanted += direction;
+        index = constraints.resolve(values, index, wanted, 0, MAX);
+        return index;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.benchmarks;
+
+import org.adw.library.widgets.discreteseekbar.internal.math.TrackMath;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * value->pixel (thumb positioning) and pixel->value (dragging) mapping.
+ * The biggest max (3 hours in microseconds) doesn't fit in an int and takes the 128 bit path.
+ */
+@State(Scope.Thread)
+public class TrackMathBenchmark {
+    @Param({"100", "100000", "10800000000"})
+    long max;
+
+    @Param({"1080"})
+    int available;
+
+    long min;
+    long value;
+    int position;
+
+    @Setup
+    public void setup() {
+        min = 0;
+        value = max / 3;
+        position = available / 3;
+    }
+
+    @Benchmark
+    public int valueToPosition() {
+        value = value == max ? min : value + 1;
+        return TrackMath.valueToPosition(value, min, max, available);
+    }
+
+    @Benchmark
+    public long positionToValue() {
+        position = position == available ? 0 : position + 1;
+        return TrackMath.positionToValue(position, available, min, max, false);
+    }
+
+    @Benchmark
+    public long positionToValueMirrored() {
+        position = position == available ? 0 : position + 1;
+        return TrackMath.positionToValue(position, available, min, max, true);
+    }
+}
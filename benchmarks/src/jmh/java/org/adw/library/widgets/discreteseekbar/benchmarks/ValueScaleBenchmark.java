@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.adw.library.widgets.discreteseekbar.benchmarks;
+
+import org.adw.library.widgets.discreteseekbar.ValueScale;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * value->pixel and pixel->value mapping for every {@link ValueScale}.
+ * The piecewise and lookup scales use 64 breakpoints/values to exercise the binary searches.
+ */
+@State(Scope.Thread)
+public class ValueScaleBenchmark {
+    private static final int ENTRIES = 64;
+
+    @Param({"linear", "logarithmic", "exponential", "piecewise", "values"})
+    String scaleType;
+
+    @Param({"1080"})
+    int available;
+
+    ValueScale scale;
+    long min;
+    long max;
+    long value;
+    int position;
+
+    @Setup
+    public void setup() {
+        min = 0;
+        max = 1L << 40;
+        long[] values = new long[ENTRIES];
+        float[] positions = new float[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            //Quadratic spacing so the segments have different lengths
+            values[i] = (max / ((long) (ENTRIES - 1) * (ENTRIES - 1))) * i * i;
+            positions[i] = i / (float) (ENTRIES - 1);
+        }
+        values[ENTRIES - 1] = max;
+        if ("linear".equals(scaleType)) {
+            scale = ValueScale.linear();
+        } else if ("logarithmic".equals(scaleType)) {
+            scale = ValueScale.logarithmic();
+        } else if ("exponential".equals(scaleType)) {
+            scale = ValueScale.exponential(4);
+        } else if ("piecewise".equals(scaleType)) {
+            scale = ValueScale.piecewise(values, positions);
+        } else {
+            scale = ValueScale.values(values);
+        }
+        value = max / 3;
+        position = available / 3;
+    }
+
+    @Benchmark
+    public int valueToPosition() {
+        //Big steps, so every segment of the piecewise and lookup scales is hit
+        value = value >= max - 1000003 ? min : value + 1000003;
+        return scale.valueToPosition(value, min, max, available);
+    }
+
+    @Benchmark
+    public long positionToValue() {
+        position = position == available ? 0 : position + 1;
+        return scale.positionToValue(position, available, min, max);
+    }
+
+    @Benchmark
+    public long snap() {
+        value = value >= max - 1000003 ? min : value + 1000003;
+        return scale.snap(value, min, max);
+    }
+}
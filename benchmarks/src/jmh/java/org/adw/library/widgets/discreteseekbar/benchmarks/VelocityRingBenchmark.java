@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.benchmarks;
+
+import org.adw.library.widgets.discreteseekbar.internal.math.VelocityRing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Feeding the samples of one batched MotionEvent (240Hz digitizer, 60Hz frames) and reading the velocity
+ */
+@State(Scope.Thread)
+public class VelocityRingBenchmark {
+    private static final int SAMPLES_PER_EVENT = 4;
+
+    VelocityRing ring;
+    long time;
+    float position;
+
+    @Setup
+    public void setup() {
+        ring = new VelocityRing();
+    }
+
+    @Benchmark
+    public float addBatchAndGetVelocity() {
+        for (int i = 0; i < SAMPLES_PER_EVENT; i++) {
+            time += 4;
+            position = position > 1000 ? 0 : position + 7.5f;
+            ring.add(time, position);
+        }
+        return ring.getVelocity();
+    }
+}
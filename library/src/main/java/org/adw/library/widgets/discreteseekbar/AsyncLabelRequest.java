@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar;
+
+/**
+ * Runs the {@link AsyncNumericTransformer} for one kind of label (the value or the max, for sizing)
+ * keeping at most one request queued and posting only the latest result back.
+ */
+final class AsyncLabelRequest implements Runnable {
+    private final DiscreteSeekBar mSeekBar;
+    private final AsyncNumericTransformer mTransformer;
+    private final boolean mForSizes;
+    //Everything below is guarded by this
+    private long mValue;
+    private boolean mQueued;
+    private long mResultValue;
+    private String mResult;
+    private boolean mResultPosted;
+
+    AsyncLabelRequest(DiscreteSeekBar seekBar, AsyncNumericTransformer transformer, boolean forSizes) {
+        mSeekBar = seekBar;
+        mTransformer = transformer;
+        mForSizes = forSizes;
+    }
+
+    AsyncNumericTransformer getTransformer() {
+        return mTransformer;
+    }
+
+    /**
+     * @return true if the labels are only used to measure the indicator
+     */
+    boolean isForSizes() {
+        return mForSizes;
+    }
+
+    void request(long value) {
+        synchronized (this) {
+            mValue = value;
+            if (mQueued) {
+                //The queued run will pick up the new value
+                return;
+            }
+            mQueued = true;
+        }
+        mTransformer.getExecutor().execute(this);
+    }
+
+    @Override
+    public void run() {
+        long value;
+        synchronized (this) {
+            value = mValue;
+            mQueued = false;
+        }
+        //Values out of the int range go through transformToString(long)
+        String label = mTransformer.transformToString(value);
+        synchronized (this) {
+            if (value != mValue) {
+                //Superseded while computing, a newer run is already queued
+                return;
+            }
+            mResultValue = value;
+            mResult = label;
+            if (mResultPosted) {
+                return;
+            }
+            mResultPosted = true;
+        }
+        mSeekBar.post(mDeliver);
+    }
+
+    private final Runnable mDeliver = new Runnable() {
+        @Override
+        public void run() {
+            long value;
+            String label;
+            synchronized (AsyncLabelRequest.this) {
+                mResultPosted = false;
+                value = mResultValue;
+                label = mResult;
+                mResult = null;
+            }
+            mSeekBar.onAsyncLabel(AsyncLabelRequest.this, value, label);
+        }
+    };
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A {@link DiscreteSeekBar.NumericTransformer} for labels too expensive to build on the UI thread
+ * (unit conversions, currency lookups, localized plurals...).
+ * <p>
+ * {@link #transformInBackground(int)} runs on the {@link java.util.concurrent.Executor} passed to the constructor.
+ * While dragging, requests not started yet are replaced by the newest one, and results for values
+ * no longer shown are dropped. Until the label arrives the indicator keeps showing the last one,
+ * or the one returned by {@link #getPlaceholder(int)}.
+ * </p>
+ */
+public abstract class AsyncNumericTransformer extends DiscreteSeekBar.NumericTransformer {
+    private static Executor sDefaultExecutor;
+    private final Executor mExecutor;
+
+    /**
+     * Uses a single background thread shared by every AsyncNumericTransformer
+     */
+    public AsyncNumericTransformer() {
+        this(getDefaultExecutor());
+    }
+
+    public AsyncNumericTransformer(@NonNull Executor executor) {
+        mExecutor = executor;
+    }
+
+    private static synchronized Executor getDefaultExecutor() {
+        if (sDefaultExecutor == null) {
+            sDefaultExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "DiscreteSeekBar labels");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sDefaultExecutor;
+    }
+
+    public Executor getExecutor() {
+        return mExecutor;
+    }
+
+    /**
+     * Return the label to be shown to the user. Called on the executor thread.
+     *
+     * @param value The value to be transformed
+     * @return the label, displayed 'as is' without further formatting
+     */
+    public abstract String transformInBackground(int value);
+
+    /**
+     * A cheap label shown (on the UI thread) while the real one is being computed.
+     *
+     * @param value The value to be transformed
+     * @return the placeholder, or null to keep showing the last label. By default null.
+     */
+    public CharSequence getPlaceholder(int value) {
+        return null;
+    }
+
+    /**
+     * Long version of {@link #getPlaceholder(int)}, the one actually used by the {@link DiscreteSeekBar}.
+     * <p>
+     * By default it calls {@link #getPlaceholder(int)} for values within the int range and returns null for the others.
+     * Override it to show placeholders for ranges that don't fit in an int.
+     * </p>
+     */
+    public CharSequence getPlaceholder(long value) {
+        return isIntValue(value) ? getPlaceholder((int) value) : null;
+    }
+
+    @Override
+    public int transform(int value) {
+        return value;
+    }
+
+    /**
+     * Computes the label synchronously, blocking the calling thread.
+     * <p>
+     * The indicator never uses this, it's only here for {@link DiscreteSeekBar#getValueAsString(long)}
+     * </p>
+     */
+    @Override
+    public String transformToString(int value) {
+        return transformInBackground(value);
+    }
+
+    @Override
+    public boolean useStringTransform() {
+        return true;
+    }
+}
@@ -24,6 +24,8 @@ import android.graphics.Color;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.os.Parcel;
 import android.os.Parcelable;
 import androidx.annotation.NonNull;
@@ -38,19 +40,75 @@ import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewConfiguration;
 import android.view.ViewParent;
+import android.view.animation.Interpolator;
 
+import org.adw.library.widgets.discreteseekbar.internal.DirtyRegionTracker;
+import org.adw.library.widgets.discreteseekbar.internal.IndicatorConfig;
+import org.adw.library.widgets.discreteseekbar.internal.IndicatorPool;
 import org.adw.library.widgets.discreteseekbar.internal.PopupIndicator;
+import org.adw.library.widgets.discreteseekbar.internal.TickMarks;
 import org.adw.library.widgets.discreteseekbar.internal.compat.AnimatorCompat;
+import org.adw.library.widgets.discreteseekbar.internal.compat.FrameScheduler;
 import org.adw.library.widgets.discreteseekbar.internal.compat.SeekBarCompat;
+import org.adw.library.widgets.discreteseekbar.internal.compat.StaticLayer;
 import org.adw.library.widgets.discreteseekbar.internal.drawable.MarkerDrawable;
+import org.adw.library.widgets.discreteseekbar.internal.drawable.StateDrawable;
 import org.adw.library.widgets.discreteseekbar.internal.drawable.ThumbDrawable;
+import org.adw.library.widgets.discreteseekbar.internal.drawable.ScrubberDrawable;
 import org.adw.library.widgets.discreteseekbar.internal.drawable.TrackRectDrawable;
-
-import java.util.Formatter;
+import org.adw.library.widgets.discreteseekbar.internal.math.FlingMath;
+import org.adw.library.widgets.discreteseekbar.internal.math.RangeConstraints;
+import org.adw.library.widgets.discreteseekbar.internal.math.TrackMath;
+import org.adw.library.widgets.discreteseekbar.internal.math.VelocityRing;
+import org.adw.library.widgets.discreteseekbar.internal.text.LabelBuffer;
+import org.adw.library.widgets.discreteseekbar.internal.text.LabelCache;
+import org.adw.library.widgets.discreteseekbar.internal.text.LabelFormat;
+
+import java.util.Arrays;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DiscreteSeekBar extends View {
 
+    /**
+     * Listeners are called on every value change. This is the default.
+     *
+     * @see #setListenerDispatchMode(int)
+     */
+    public static final int DISPATCH_IMMEDIATE = 0;
+    /**
+     * User changes are delivered at most once per display frame, with the latest value.
+     *
+     * @see #setListenerDispatchMode(int)
+     */
+    public static final int DISPATCH_PER_FRAME = 1;
+    /**
+     * User changes are delivered at most once every {@link #setListenerDispatchInterval(int)} milliseconds,
+     * with the latest value.
+     *
+     * @see #setListenerDispatchMode(int)
+     */
+    public static final int DISPATCH_THROTTLED = 2;
+
+    /**
+     * In range mode, a thumb stops at the minimum gap from its neighbours. This is the default.
+     *
+     * @see #setRangeBehavior(int)
+     */
+    public static final int RANGE_BLOCK = RangeConstraints.BLOCK;
+    /**
+     * In range mode, a thumb pushes its neighbours (and drags the other end along when the span gets too wide).
+     *
+     * @see #setRangeBehavior(int)
+     */
+    public static final int RANGE_PUSH = RangeConstraints.PUSH;
+    /**
+     * In range mode, a thumb can pass its neighbours and take their place.
+     *
+     * @see #setRangeBehavior(int)
+     */
+    public static final int RANGE_SWAP = RangeConstraints.SWAP;
+
     /**
      * Interface to propagate seekbar change event
      */
@@ -60,7 +118,7 @@ public class DiscreteSeekBar extends View {
          *
          * @param seekBar  The DiscreteSeekBar
          * @param value    the new value
-         * @param fromUser if the change was made from the user or not (i.e. the developer calling {@link #setProgress(int)}
+         * @param fromUser if the change was made from the user or not (i.e. the developer calling {@link #setProgress(long)}
          */
         public void onProgressChanged(DiscreteSeekBar seekBar, int value, boolean fromUser);
 
@@ -76,7 +134,7 @@ public class DiscreteSeekBar extends View {
          * @param seekBar  The DiscreteSeekBar
          * @param lower    the new lower value
          * @param upper    the new upper value
-         * @param fromUser if the change was made from the user or not (i.e. the developer calling {@link #setProgress(int)}
+         * @param fromUser if the change was made from the user or not (i.e. the developer calling {@link #setProgress(long)}
          */
         public void onRangeChanged(DiscreteSeekBar seekBar, int lower, int upper, boolean fromUser);
 
@@ -85,6 +143,65 @@ public class DiscreteSeekBar extends View {
         public void onStopTrackingTouch(DiscreteSeekBar seekBar);
     }
 
+    /**
+     * Interface to receive the full (long) values.
+     * <p>
+     * {@link DiscreteSeekBar.OnProgressChangeListener} and {@link DiscreteSeekBar.OnRangeChangeListener}
+     * receive values saturated to the int range, use this one with ranges that don't fit in an int.
+     * </p>
+     */
+    public interface OnValueChangeListener {
+        /**
+         * When the {@link DiscreteSeekBar} value changes
+         *
+         * @param seekBar  The DiscreteSeekBar
+         * @param lower    the new progress, or lower value in range mode
+         * @param upper    the new upper value in range mode, the same as lower otherwise
+         * @param fromUser if the change was made from the user or not (i.e. the developer calling {@link #setProgress(long)}
+         */
+        public void onValueChanged(DiscreteSeekBar seekBar, long lower, long upper, boolean fromUser);
+    }
+
+    /**
+     * Interface to receive the value of every thumb.
+     * <p>
+     * With more than 2 thumbs {@link DiscreteSeekBar.OnRangeChangeListener} and {@link DiscreteSeekBar.OnValueChangeListener}
+     * only receive the first and last values, use this one to know which thumb changed.
+     * </p>
+     */
+    public interface OnThumbsChangeListener {
+        /**
+         * When the value of any thumb changes
+         *
+         * @param seekBar  The DiscreteSeekBar
+         * @param thumb    the index of the thumb that was moved (after swapping places, if it did),
+         *                 or -1 if the change moved several thumbs at once. Pushed thumbs don't count.
+         * @param values   the value of every thumb, sorted. The array is reused, copy it to keep the values
+         * @param fromUser if the change was made from the user or not (i.e. the developer calling {@link #setThumbValue(int, long, boolean)}
+         */
+        public void onThumbsChanged(DiscreteSeekBar seekBar, int thumb, long[] values, boolean fromUser);
+    }
+
+    /**
+     * Interface to know in advance where a fling will end
+     *
+     * @see #setFlingEnabled(boolean)
+     */
+    public interface OnFlingListener {
+        /**
+         * Called when the user releases the thumb with enough velocity, before it starts moving.
+         * <p>
+         * The regular change listeners will still be called as the thumb moves, use this to
+         * start preparing for the final value early.
+         * </p>
+         *
+         * @param seekBar    The DiscreteSeekBar
+         * @param finalValue The value the flung thumb will stop at (unless the fling is interrupted),
+         *                   saturated to the int range
+         */
+        public void onFlingStarted(DiscreteSeekBar seekBar, int finalValue);
+    }
+
     /**
      * Interface to transform the current internal value of this DiscreteSeekBar to anther one for the visualization.
      * <p/>
@@ -117,6 +234,32 @@ public class DiscreteSeekBar extends View {
             return String.valueOf(value);
         }
 
+        /**
+         * Long version of {@link #transform(int)}, the one actually used by the {@link DiscreteSeekBar}.
+         * <p>
+         * By default it calls {@link #transform(int)} for values within the int range and leaves the others unchanged.
+         * Override it to transform values of ranges that don't fit in an int.
+         * </p>
+         */
+        public long transform(long value) {
+            return isIntValue(value) ? transform((int) value) : value;
+        }
+
+        /**
+         * Long version of {@link #transformToString(int)}, the one actually used by the {@link DiscreteSeekBar}.
+         * <p>
+         * By default it calls {@link #transformToString(int)} for values within the int range.
+         * Override it to transform values of ranges that don't fit in an int.
+         * </p>
+         */
+        public String transformToString(long value) {
+            return isIntValue(value) ? transformToString((int) value) : String.valueOf(value);
+        }
+
+        static boolean isIntValue(long value) {
+            return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+        }
+
         /**
          * Used to indicate which transform will be used. If this method returns true,
          * {@link #transformToString(int)} will be used, otherwise {@link #transform(int)}
@@ -134,11 +277,125 @@ public class DiscreteSeekBar extends View {
         public int transform(int value) {
             return value;
         }
+
+        @Override
+        public long transform(long value) {
+            return value;
+        }
     }
 
     private static class Thumb {
         private ThumbDrawable drawable;
-        private int value;
+        private long value;
+        //Index in mThumbs, thumbs are sorted by value
+        private int index;
+        //Current offset (in pixels) from the track start
+        private int position;
+    }
+
+    /**
+     * Batches changes to the min, max and values of a {@link DiscreteSeekBar}.
+     * <p>
+     * Nothing is applied until {@link #commit()} is called. Then all the changes are applied at once:
+     * the thumbs are positioned only once and listeners get a single call with the final values.
+     * Intermediate states (like a lower value bigger than the old upper one) are never rejected,
+     * only the final state is validated. Values breaking the minimum gap or the maximum span
+     * are moved apart, the lower thumbs win.
+     * </p>
+     * <p>
+     * The same instance is returned by every {@link #edit()} call, so don't keep a reference to it.
+     * </p>
+     *
+     * @see #edit()
+     */
+    public class Editor {
+        private long mNewMin;
+        private long mNewMax;
+        private final long[] mNewValues = new long[mThumbs.length];
+        private final boolean[] mValueSet = new boolean[mThumbs.length];
+        private boolean mMinSet;
+        private boolean mMaxSet;
+
+        private Editor() {
+        }
+
+        private Editor reset() {
+            mMinSet = mMaxSet = false;
+            Arrays.fill(mValueSet, false);
+            return this;
+        }
+
+        public Editor setMin(long min) {
+            mNewMin = min;
+            mMinSet = true;
+            return this;
+        }
+
+        public Editor setMax(long max) {
+            mNewMax = max;
+            mMaxSet = true;
+            return this;
+        }
+
+        public Editor setProgress(long value) {
+            return setLowerValue(value);
+        }
+
+        public Editor setLowerValue(long value) {
+            return setThumbValue(0, value);
+        }
+
+        /**
+         * Sets the value of the last thumb. Ignored if the {@link DiscreteSeekBar} is not in range mode
+         */
+        public Editor setUpperValue(long value) {
+            if (mRange) {
+                setThumbValue(mThumbs.length - 1, value);
+            }
+            return this;
+        }
+
+        /**
+         * @param index the thumb, from 0 (the lowest value) to {@link #getThumbCount()} - 1
+         */
+        public Editor setThumbValue(int index, long value) {
+            mNewValues[index] = value;
+            mValueSet[index] = true;
+            return this;
+        }
+
+        /**
+         * Same as calling {@link #commit(boolean)} with fromUser=false
+         */
+        public void commit() {
+            commit(false);
+        }
+
+        /**
+         * Applies every pending change and notifies the listeners once (only if a value really changed)
+         *
+         * @param fromUser value passed to the listeners
+         */
+        public void commit(boolean fromUser) {
+            long min = mMinSet ? mNewMin : mMin;
+            long max = mMaxSet ? mNewMax : mMax;
+            //Same rules as setMin/setMax: the explicitly set one wins
+            if (mMinSet) {
+                min = Math.min(min, Long.MAX_VALUE - 1);
+                max = TrackMath.fitMax(min, max);
+            } else {
+                max = Math.max(max, Long.MIN_VALUE + 1);
+                min = TrackMath.fitMin(min, max);
+            }
+            final long[] values = mResolvedValues;
+            for (int i = 0; i < values.length; i++) {
+                values[i] = adjustValue(mValueSet[i] ? mNewValues[i] : mThumbs[i].value, min, max);
+            }
+            resolveOrder(values, mValueSet);
+            mRangeConstraints.normalize(values, min, max);
+            reset();
+            applyEdit(min, max, values, fromUser);
+        }
     }
 
     private static final boolean isLollipopOrGreater = Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
@@ -151,45 +408,119 @@ public class DiscreteSeekBar extends View {
     private static final int INDICATOR_DELAY_FOR_TAPS = 150;
     private static final int DEFAULT_THUMB_COLOR = 0xff009688;
     private static final int SEPARATION_DP = 5;
-
-    private Thumb[] mThumbs = new Thumb[2];
+    private static final int TICK_MARK_MIN_SPACING_DP = 8;
+
+    //Sorted by value, a single one unless in range mode
+    private Thumb[] mThumbs;
+    //Scratch arrays to validate several values at once
+    private long[] mResolvedValues;
+    private boolean[] mResolvedSet;
+    //Only for the limits, so they can be computed while the others are in use
+    private long[] mLimitValues;
+    //Handed to the OnThumbsChangeListener
+    private long[] mListenerValues;
+    //Gap, span and behavior of the thumbs in range mode
+    private final RangeConstraints mRangeConstraints = new RangeConstraints();
 
     private TrackRectDrawable mTrack;
-    private TrackRectDrawable mScrubber;
+    private ScrubberDrawable mScrubber;
     private Drawable mRipple;
+    //Recorded once and replayed on every draw, null if layered rendering is disabled
+    private StaticLayer mStaticLayer;
+    //Only built when tick marks are enabled
+    private TickMarks mTickMarks;
+    private long mTickMarkInterval;
+    private int mTickMarkMinSpacing;
+    private int mTickMarkSize;
+    private ColorStateList mTickMarkColor;
+    private ColorStateList mActiveTickMarkColor;
 
     private int mTrackHeight;
     private int mScrubberHeight;
     private int mAddedTouchBounds;
 
-    private int mMax;
-    private int mMin;
-    private int mKeyProgressIncrement = 1;
+    //Values are longs so wide ranges (like microseconds of a long video) can be mapped exactly
+    private long mMax;
+    private long mMin;
+    private long mKeyProgressIncrement = 1;
+    private ValueScale mValueScale = ValueScale.linear();
     private boolean mRange = false;
     private boolean mMirrorForRtl = false;
     private boolean mMirror = false;
     private boolean mAllowTrackClick = true;
     private boolean mIndicatorPopupEnabled = true;
-    //We use our own Formatter to avoid creating new instances on every progress change
-    Formatter mFormatter;
+    //We compile the formatter once and write the label into a reused buffer
+    //to avoid creating new instances on every progress change
+    private LabelFormat mLabelFormat;
+    private final LabelBuffer mLabelBuffer = new LabelBuffer();
     private String mIndicatorFormatter;
     private NumericTransformer mNumericTransformer;
-    private StringBuilder mFormatBuilder;
+    //Optional cache of already transformed labels
+    private LabelCache mLabelCache;
+    //Only used with an AsyncNumericTransformer
+    private AsyncLabelRequest mAsyncLabel;
+    private AsyncLabelRequest mAsyncSizeLabel;
+    private long mAsyncWantedValue;
     private OnProgressChangeListener mPublicChangeListener;
     private OnRangeChangeListener mRangeChangeListener;
-    private boolean mIsDragging;
+    private OnValueChangeListener mValueChangeListener;
+    private OnThumbsChangeListener mThumbsChangeListener;
+    //Read from other threads to drop values pushed while the user drags
+    private volatile boolean mIsDragging;
     private int mDragOffset;
 
     private Rect mInvalidateRect = new Rect();
     private Rect mTempRect = new Rect();
+    private Rect mScrubberRect = new Rect();
+    private Rect mScrubberNewRect = new Rect();
+    //Only the areas that really changed get invalidated
+    private final DirtyRegionTracker mDirtyRegions = new DirtyRegionTracker(this);
+    //Null until it's needed (or while it's lent to other DiscreteSeekBar if shared)
     private PopupIndicator mIndicator;
+    private IndicatorConfig mIndicatorConfig;
+    private boolean mSharedIndicator;
+    private IndicatorPool mIndicatorPool;
+    private boolean mIndicatorPrewarm;
+    //The label width mIndicator was last measured for, the measure is skipped if it doesn't change
+    private float mIndicatorSizingWidth;
+    //One clock for every animation in this View (drawables, indicator and keyboard progress)
+    private final FrameScheduler mFrameScheduler = FrameScheduler.create();
     private AnimatorCompat mPositionAnimator;
-    private float mAnimationPosition;
-    private int mAnimationTarget;
+    //The animations run from 0 to 1 between these two values
+    private long mAnimationStart;
+    private long mAnimationTarget;
+    private long mAnimationValue;
     private float mDownX;
     private float mTouchSlop;
+    private boolean mFlingEnabled;
+    private float mFlingFriction = FlingMath.DEFAULT_FRICTION;
+    private int mFlingDuration;
+    private float mMinimumFlingVelocity;
+    private OnFlingListener mFlingListener;
+    //Pointer velocity along the track, fed with every (historical) touch sample
+    private final VelocityRing mVelocity = new VelocityRing();
 
     private Thumb mActiveThumb;
+    private Editor mEditor;
+
+    private int mDispatchMode = DISPATCH_IMMEDIATE;
+    private int mDispatchInterval;
+    private long mLastDispatchTime;
+    //There's a coalesced user change waiting to be delivered
+    private boolean mDispatchPending;
+    //The thumb moved by the pending change, -1 if several
+    private int mPendingThumb;
+    //A listener is being notified, a nested change can't reuse mListenerValues
+    private boolean mDispatching;
+
+    //Optional values source that can be written from any thread
+    private volatile SeekBarModel mModel;
+    //The model values being applied, only while applying them
+    private SeekBarModel.Values mApplyingModelValues;
+    private ValueSource mValueSource;
+    private ValueSource.Subscription mValueSubscription;
+    //Set by the first model write after the last applied one, the following ones are merged into the same update
+    private final AtomicBoolean mModelUpdatePending = new AtomicBoolean();
 
     private boolean mForceBubble;
 
@@ -208,7 +539,9 @@ public class DiscreteSeekBar extends View {
         setFocusable(true);
         setWillNotDraw(false);
 
-        mTouchSlop = ViewConfiguration.get(context).getScaledTouchSlop();
+        ViewConfiguration configuration = ViewConfiguration.get(context);
+        mTouchSlop = configuration.getScaledTouchSlop();
+        mMinimumFlingVelocity = configuration.getScaledMinimumFlingVelocity();
         float density = context.getResources().getDisplayMetrics().density;
 
         TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.DiscreteSeekBar,
@@ -221,8 +554,16 @@ public class DiscreteSeekBar extends View {
         mMirrorForRtl = a.getBoolean(R.styleable.DiscreteSeekBar_dsb_mirrorForRtl, mMirrorForRtl);
         mMirror = a.getBoolean(R.styleable.DiscreteSeekBar_dsb_mirror, mMirror);
         mRange = a.getBoolean(R.styleable.DiscreteSeekBar_dsb_range, mRange);
+        int thumbCount = Math.max(1, a.getInteger(R.styleable.DiscreteSeekBar_dsb_thumbCount, mRange ? 2 : 1));
+        mRange = thumbCount > 1;
+        mRangeConstraints.setBehavior(a.getInt(R.styleable.DiscreteSeekBar_dsb_rangeBehavior, RANGE_BLOCK));
+        mRangeConstraints.setMinGap(a.getInteger(R.styleable.DiscreteSeekBar_dsb_minRangeGap, 0));
+        int maxSpan = a.getInteger(R.styleable.DiscreteSeekBar_dsb_maxRangeSpan, 0);
+        mRangeConstraints.setMaxSpan(maxSpan > 0 ? maxSpan : Long.MAX_VALUE);
         mAllowTrackClick = a.getBoolean(R.styleable.DiscreteSeekBar_dsb_allowTrackClickToDrag, mAllowTrackClick);
         mIndicatorPopupEnabled = a.getBoolean(R.styleable.DiscreteSeekBar_dsb_indicatorPopupEnabled, mIndicatorPopupEnabled);
+        setLayeredRenderingEnabled(a.getBoolean(R.styleable.DiscreteSeekBar_dsb_layeredRendering, true));
+        mFlingEnabled = a.getBoolean(R.styleable.DiscreteSeekBar_dsb_flingEnabled, mFlingEnabled);
         mTrackHeight = a.getDimensionPixelSize(R.styleable.DiscreteSeekBar_dsb_trackHeight, (int) (1 * density));
         mScrubberHeight = a.getDimensionPixelSize(R.styleable.DiscreteSeekBar_dsb_scrubberHeight, (int) (4 * density));
         int thumbSize = a.getDimensionPixelSize(R.styleable.DiscreteSeekBar_dsb_thumbSize, (int) (density * ThumbDrawable.DEFAULT_SIZE_DP));
@@ -269,18 +610,34 @@ public class DiscreteSeekBar extends View {
             }
         }
 
-        mThumbs[0] = new Thumb();
-        mThumbs[1] = new Thumb();
+        mThumbs = new Thumb[thumbCount];
+        for (int i = 0; i < thumbCount; i++) {
+            mThumbs[i] = new Thumb();
+            mThumbs[i].index = i;
+        }
+        mResolvedValues = new long[thumbCount];
+        mResolvedSet = new boolean[thumbCount];
+        mLimitValues = new long[thumbCount];
+        mListenerValues = new long[thumbCount];
 
         mActiveThumb = mThumbs[0];
 
         mMin = min;
         mMax = Math.max(min + 1, max);
-        mThumbs[0].value = Math.max(min, Math.min(max, value));
-        mThumbs[1].value = Math.max(mThumbs[0].value, Math.min(max, upperValue));
+        long lower = Math.max(min, Math.min(max, value));
+        long upper = Math.max(lower, Math.min(max, upperValue));
+        //The ones in between are evenly spread from the lower to the upper value
+        for (int i = 0; i < thumbCount; i++) {
+            mResolvedValues[i] = i == 0 ? lower : TrackMath.interpolate(lower, upper, i / (float) (thumbCount - 1));
+        }
+        mRangeConstraints.normalize(mResolvedValues, mMin, mMax);
+        for (int i = 0; i < thumbCount; i++) {
+            mThumbs[i].value = mResolvedValues[i];
+        }
         updateKeyboardRange();
 
         mIndicatorFormatter = a.getString(R.styleable.DiscreteSeekBar_dsb_indicatorFormatter);
+        setIndicatorLabelCacheEnabled(a.getBoolean(R.styleable.DiscreteSeekBar_dsb_indicatorLabelCache, false));
 
         ColorStateList trackColor = a.getColorStateList(R.styleable.DiscreteSeekBar_dsb_trackColor);
         ColorStateList progressColor = a.getColorStateList(R.styleable.DiscreteSeekBar_dsb_progressColor);
@@ -295,8 +652,23 @@ public class DiscreteSeekBar extends View {
         if (editMode || progressColor == null) {
             progressColor = new ColorStateList(new int[][]{new int[]{}}, new int[]{DEFAULT_THUMB_COLOR});
         }
+        //Tick marks contrast with what's under them: the progress color over the track and the other way around
+        mTickMarkColor = a.getColorStateList(R.styleable.DiscreteSeekBar_dsb_tickMarkColor);
+        mActiveTickMarkColor = a.getColorStateList(R.styleable.DiscreteSeekBar_dsb_activeTickMarkColor);
+        if (editMode || mTickMarkColor == null) {
+            mTickMarkColor = progressColor;
+        }
+        if (editMode || mActiveTickMarkColor == null) {
+            mActiveTickMarkColor = trackColor;
+        }
+        mTickMarkSize = a.getDimensionPixelSize(R.styleable.DiscreteSeekBar_dsb_tickMarkSize, Math.max(mScrubberHeight / 2, 1));
+        mTickMarkMinSpacing = a.getDimensionPixelSize(R.styleable.DiscreteSeekBar_dsb_tickMarkMinSpacing,
+                (int) (TICK_MARK_MIN_SPACING_DP * density));
 
         mRipple = SeekBarCompat.getRipple(rippleColor);
+        if (mRipple instanceof StateDrawable) {
+            ((StateDrawable) mRipple).setFrameScheduler(mFrameScheduler);
+        }
         if (isLollipopOrGreater) {
             SeekBarCompat.setBackground(this, mRipple);
         } else {
@@ -307,27 +679,26 @@ public class DiscreteSeekBar extends View {
         mTrack = shapeDrawable;
         mTrack.setCallback(this);
 
-        shapeDrawable = new TrackRectDrawable(progressColor);
-        mScrubber = shapeDrawable;
+        mScrubber = new ScrubberDrawable(progressColor);
+        //Thumbs are paired: (0, 1), (2, 3)... With an odd count the first segment goes from the track start to thumb 0
+        mScrubber.setSegmentCount((thumbCount + 1) / 2);
         mScrubber.setCallback(this);
 
-        ThumbDrawable td = new ThumbDrawable(progressColor, thumbSize);
-        td.setCallback(this);
-        td.setBounds(0, 0, td.getIntrinsicWidth(), td.getIntrinsicHeight());
-        mThumbs[0].drawable = td;
-
-        if (mRange) {
-            td = new ThumbDrawable(progressColor, thumbSize);
+        for (Thumb thumb : mThumbs) {
+            ThumbDrawable td = new ThumbDrawable(progressColor, thumbSize);
             td.setCallback(this);
+            td.setFrameScheduler(mFrameScheduler);
             td.setBounds(0, 0, td.getIntrinsicWidth(), td.getIntrinsicHeight());
-            mThumbs[1].drawable = td;
+            thumb.drawable = td;
         }
 
         if (!editMode) {
-            mIndicator = new PopupIndicator(context, attrs, defStyleAttr, convertValueToMessage(mMax),
-                    thumbSize, thumbSize + mAddedTouchBounds + separation, mVertical);
-            mIndicator.setListener(mFloaterListener);
+            //The indicator itself is only built when it's going to be shown
+            mIndicatorConfig = IndicatorConfig.read(context, a, thumbSize, thumbSize + mAddedTouchBounds + separation, mVertical);
+            mSharedIndicator = a.getBoolean(R.styleable.DiscreteSeekBar_dsb_sharedIndicator, false);
+            mIndicatorPrewarm = a.getBoolean(R.styleable.DiscreteSeekBar_dsb_indicatorPrewarm, false);
         }
+        setTickMarkInterval(a.getInteger(R.styleable.DiscreteSeekBar_dsb_tickMarkInterval, 0));
         a.recycle();
 
         setNumericTransformer(new DefaultNumericTransformer());
@@ -343,6 +714,8 @@ public class DiscreteSeekBar extends View {
      */
     public void setIndicatorFormatter(@Nullable String formatter) {
         mIndicatorFormatter = formatter;
+        mLabelFormat = null;
+        invalidateLabelCache();
         updateProgressMessage(mThumbs[0].value);
     }
 
@@ -354,6 +727,16 @@ public class DiscreteSeekBar extends View {
      */
     public void setNumericTransformer(@Nullable NumericTransformer transformer) {
         mNumericTransformer = transformer != null ? transformer : new DefaultNumericTransformer();
+        if (mNumericTransformer instanceof AsyncNumericTransformer) {
+            AsyncNumericTransformer async = (AsyncNumericTransformer) mNumericTransformer;
+            mAsyncLabel = new AsyncLabelRequest(this, async, false);
+            mAsyncSizeLabel = new AsyncLabelRequest(this, async, true);
+        } else {
+            //Pending results of a previous transformer will be ignored
+            mAsyncLabel = null;
+            mAsyncSizeLabel = null;
+        }
+        invalidateLabelCache();
         //We need to refresh the PopupIndicator view
         updateIndicatorSizes();
         updateProgressMessage(mThumbs[0].value);
@@ -369,39 +752,116 @@ public class DiscreteSeekBar extends View {
         return mNumericTransformer;
     }
 
+    /**
+     * Sets how the values are laid out along the track: dragging, keyboard steps, flings
+     * and animations all go through it.
+     * <p>
+     * The current values are snapped to the new scale without notifying.
+     * </p>
+     *
+     * @param scale the {@link ValueScale}, or null for the default {@link ValueScale#linear()}
+     */
+    public void setValueScale(@Nullable ValueScale scale) {
+        mValueScale = scale != null ? scale : ValueScale.linear();
+        if (isAnimationRunning()) {
+            mPositionAnimator.cancel();
+        }
+        long previous = Long.MIN_VALUE;
+        for (Thumb thumb : mThumbs) {
+            long value = Math.max(previous, adjustValue(thumb.value, mMin, mMax));
+            thumb.value = value;
+            updateThumbPosFromCurrentProgress(thumb, value);
+            previous = value;
+        }
+        updateProgressMessage(mActiveThumb.value);
+        layoutTickMarks();
+        writeToModel();
+    }
+
+    public ValueScale getValueScale() {
+        return mValueScale;
+    }
+
+    /**
+     * Snaps a value to the {@link ValueScale} and keeps it between min and max
+     */
+    private long adjustValue(long value, long min, long max) {
+        return TrackMath.clamp(mValueScale.snap(value, min, max), min, max);
+    }
+
+    /**
+     * Enables caching the indicator labels so the {@link DiscreteSeekBar.NumericTransformer} and
+     * the formatter are only used once per value.
+     * <p>
+     * Only enable this if your {@link DiscreteSeekBar.NumericTransformer} always returns the same
+     * label for the same value. The cache will be cleared when the min/max, the transformer,
+     * the formatter or the default Locale change.
+     * </p>
+     *
+     * @param enabled true to cache the labels. By default it's disabled.
+     */
+    public void setIndicatorLabelCacheEnabled(boolean enabled) {
+        if (enabled && mLabelCache == null) {
+            mLabelCache = new LabelCache();
+            invalidateLabelCache();
+        } else if (!enabled) {
+            mLabelCache = null;
+        }
+    }
+
+    private void invalidateLabelCache() {
+        if (mLabelCache != null) {
+            mLabelCache.reset(mMin, mMax, Locale.getDefault());
+        }
+    }
+
     /**
      * Sets the maximum value for this DiscreteSeekBar
      * if the supplied argument is smaller than the Current MIN value,
      * the MIN value will be set to MAX-1
      * <p/>
      * <p>
+     * The MIN value is also raised if the range length (MAX-MIN) doesn't fit in a long,
+     * and a MAX of {@link Long#MIN_VALUE} is taken as {@link Long#MIN_VALUE}+1.
      * Also if the current progress is out of the new range, it will be set to MIN
      * </p>
      *
      * @param max
-     * @see #setMin(int)
-     * @see #setProgress(int)
+     * @see #setMin(long)
+     * @see #setProgress(long)
      */
-    public void setMax(int max) {
-        mMax = max;
-        if (mMax < mMin) {
-            setMin(mMax - 1);
-        }
+    public void setMax(long max) {
+        mMax = Math.max(max, Long.MIN_VALUE + 1);
+        mMin = TrackMath.fitMin(mMin, mMax);
+        invalidateLabelCache();
         updateKeyboardRange();
+        layoutTickMarks();
 
         if (mThumbs[0].value < mMin || mThumbs[0].value > mMax) {
             setProgress(mMin);
         }
-        if (mRange) {
-            if (mThumbs[1].value < mThumbs[0].value || mThumbs[1].value > mMax) {
-                setValue(mThumbs[1], mThumbs[0].value, false);
-            }
-        }
+        enforceRangeConstraints();
         //We need to refresh the PopupIndicator view
         updateIndicatorSizes();
     }
 
+    /**
+     * @deprecated Use {@link #setMax(long)} instead, this overload is only kept for binary compatibility
+     */
+    @Deprecated
+    public void setMax(int max) {
+        setMax((long) max);
+    }
+
+    /**
+     * @return the max value, saturated to the int range
+     * @see #getMaxLong()
+     */
     public int getMax() {
+        return TrackMath.toInt(mMax);
+    }
+
+    public long getMaxLong() {
         return mMax;
     }
 
@@ -410,31 +870,49 @@ public class DiscreteSeekBar extends View {
      * if the supplied argument is bigger than the Current MAX value,
      * the MAX value will be set to MIN+1
      * <p>
+     * The MAX value is also lowered if the range length (MAX-MIN) doesn't fit in a long,
+     * and a MIN of {@link Long#MAX_VALUE} is taken as {@link Long#MAX_VALUE}-1.
      * Also if the current progress is out of the new range, it will be set to MIN
      * </p>
      *
      * @param min
-     * @see #setMax(int)
-     * @see #setProgress(int)
+     * @see #setMax(long)
+     * @see #setProgress(long)
      */
-    public void setMin(int min) {
-        mMin = min;
-        if (mMin > mMax) {
-            setMax(mMin + 1);
-        }
+    public void setMin(long min) {
+        final long oldMax = mMax;
+        mMin = Math.min(min, Long.MAX_VALUE - 1);
+        mMax = TrackMath.fitMax(mMin, mMax);
+        invalidateLabelCache();
         updateKeyboardRange();
+        layoutTickMarks();
 
         if (mThumbs[0].value < mMin || mThumbs[0].value > mMax) {
             setProgress(mMin);
         }
-        if (mRange) {
-            if (mThumbs[1].value < mThumbs[0].value || mThumbs[1].value > mMax) {
-                setValue(mThumbs[1], mThumbs[0].value, false);
-            }
+        enforceRangeConstraints();
+        if (mMax != oldMax) {
+            updateIndicatorSizes();
         }
     }
 
+    /**
+     * @deprecated Use {@link #setMin(long)} instead, this overload is only kept for binary compatibility
+     */
+    @Deprecated
+    public void setMin(int min) {
+        setMin((long) min);
+    }
+
+    /**
+     * @return the min value, saturated to the int range
+     * @see #getMinLong()
+     */
     public int getMin() {
+        return TrackMath.toInt(mMin);
+    }
+
+    public long getMinLong() {
         return mMin;
     }
 
@@ -443,138 +921,682 @@ public class DiscreteSeekBar extends View {
      * The supplied argument will be capped to the current MIN-MAX range
      *
      * @param progress
-     * @see #setMax(int)
-     * @see #setMin(int)
+     * @see #setMax(long)
+     * @see #setMin(long)
      */
-    public void setProgress(int progress) {
+    public void setProgress(long progress) {
         setProgress(progress, false);
     }
 
-    public void setProgress(int value, boolean fromUser) {
+    public void setProgress(long value, boolean fromUser) {
         setValue(mThumbs[0], value, fromUser);
     }
 
-    public void setLowerValue(int value, boolean fromUser) {
+    public void setLowerValue(long value, boolean fromUser) {
         setValue(mThumbs[0], value, fromUser);
     }
 
-    public void setUpperValue(int value, boolean fromUser) {
-        if (mRange) {
-            setValue(mThumbs[1], value, fromUser);
-        }
-    }
-
-    private void setValue(Thumb thumb, int value, boolean fromUser) {
-        value = Math.max(mMin, Math.min(mMax, value));
-        if (isAnimationRunning()) {
-            mPositionAnimator.cancel();
-        }
-
-        if (thumb.value != value) {
-            if (mRange) {
-                if (thumb == mThumbs[0] && value > mThumbs[1].value) {
-                    return;
-                }
-                if (thumb == mThumbs[1] && value < mThumbs[0].value) {
-                    return;
-                }
-            }
-            thumb.value = value;
-            notifyProgress(fromUser);
-            updateProgressMessage(value);
-            updateThumbPosFromCurrentProgress(thumb, thumb.value);
-        }
-    }
-
     /**
-     * Get the current progress
-     *
-     * @return the current progress :-P
+     * @deprecated Use {@link #setProgress(long)} instead, this overload is only kept for binary compatibility
      */
-    public int getProgress() {
-        return mThumbs[0].value;
+    @Deprecated
+    public void setProgress(int progress) {
+        setProgress((long) progress);
     }
 
     /**
-     * Sets a listener to receive notifications of changes to the DiscreteSeekBar's progress level. Also
-     * provides notifications of when the DiscreteSeekBar shows/hides the bubble indicator.
-     *
-     * @param listener The seek bar notification listener
-     * @see DiscreteSeekBar.OnProgressChangeListener
+     * @deprecated Use {@link #setProgress(long, boolean)} instead, this overload is only kept for binary compatibility
      */
-    public void setOnProgressChangeListener(@Nullable OnProgressChangeListener listener) {
-        mPublicChangeListener = listener;
-    }
-
-    public void setOnRangeChangeListener(@Nullable OnRangeChangeListener listener) {
-        mRangeChangeListener = listener;
+    @Deprecated
+    public void setProgress(int value, boolean fromUser) {
+        setProgress((long) value, fromUser);
     }
 
     /**
-     * Sets the color of the seek thumb, as well as the color of the popup indicator.
-     *
-     * @param thumbColor     The color the seek thumb will be changed to
-     * @param indicatorColor The color the popup indicator will be changed to
-     *                       The indicator will animate from thumbColor to indicatorColor
-     *                       when opening
+     * @deprecated Use {@link #setLowerValue(long, boolean)} instead, this overload is only kept for binary compatibility
      */
-    public void setThumbColor(int thumbColor, int indicatorColor) {
-        mThumbs[0].drawable.setColorStateList(ColorStateList.valueOf(thumbColor));
-        if (mRange) {
-            mThumbs[1].drawable.setColorStateList(ColorStateList.valueOf(thumbColor));
-        }
-        mIndicator.setColors(indicatorColor, thumbColor);
+    @Deprecated
+    public void setLowerValue(int value, boolean fromUser) {
+        setLowerValue((long) value, fromUser);
     }
 
     /**
-     * Sets the color of the seek thumb, as well as the color of the popup indicator.
-     *
-     * @param thumbColorStateList The ColorStateList the seek thumb will be changed to
-     * @param indicatorColor      The color the popup indicator will be changed to
-     *                            The indicator will animate from thumbColorStateList(pressed state) to indicatorColor
-     *                            when opening
+     * Sets the value of the last thumb. Ignored if not in range mode
      */
-    public void setThumbColor(@NonNull ColorStateList thumbColorStateList, int indicatorColor) {
-        mThumbs[0].drawable.setColorStateList(thumbColorStateList);
+    public void setUpperValue(long value, boolean fromUser) {
         if (mRange) {
-            mThumbs[1].drawable.setColorStateList(thumbColorStateList);
+            setValue(mThumbs[mThumbs.length - 1], value, fromUser);
         }
-        //we use the "pressed" color to morph the indicator from it to its own color
-        int thumbColor = thumbColorStateList.getColorForState(new int[]{PRESSED_STATE}, thumbColorStateList.getDefaultColor());
-        mIndicator.setColors(indicatorColor, thumbColor);
     }
 
     /**
-     * Sets the color of the seekbar scrubber
-     *
-     * @param color The color the track  scrubber will be changed to
+     * @deprecated Use {@link #setUpperValue(long, boolean)} instead, this overload is only kept for binary compatibility
      */
-    public void setScrubberColor(int color) {
-        mScrubber.setColorStateList(ColorStateList.valueOf(color));
+    @Deprecated
+    public void setUpperValue(int value, boolean fromUser) {
+        setUpperValue((long) value, fromUser);
     }
 
     /**
-     * Sets the color of the seekbar scrubber
+     * Sets the value of a thumb. The other thumbs are resolved against the range constraints
+     * (see {@link #setRangeBehavior(int)}) and the listeners are notified once.
      *
-     * @param colorStateList The ColorStateList the track scrubber will be changed to
+     * @param index the thumb, from 0 (the lowest value) to {@link #getThumbCount()} - 1
      */
-    public void setScrubberColor(@NonNull ColorStateList colorStateList) {
-        mScrubber.setColorStateList(colorStateList);
+    public void setThumbValue(int index, long value, boolean fromUser) {
+        setValue(mThumbs[index], value, fromUser);
     }
 
-    /**
-     * Sets the color of the seekbar ripple
-     *
-     * @param color The color the track  ripple will be changed to
-     */
-    public void setRippleColor(int color) {
-        setRippleColor(new ColorStateList(new int[][]{new int[]{}}, new int[]{color}));
+    public long getThumbValue(int index) {
+        return mThumbs[index].value;
     }
 
     /**
-     * Sets the color of the seekbar ripple
-     *
-     * @param colorStateList The ColorStateList the track ripple will be changed to
+     * @return the number of thumbs: 1, or the value of dsb_thumbCount (2 by default) in range mode
+     */
+    public int getThumbCount() {
+        return mThumbs.length;
+    }
+
+    private void setValue(Thumb thumb, long value, boolean fromUser) {
+        value = adjustValue(value, mMin, mMax);
+        if (isAnimationRunning()) {
+            mPositionAnimator.cancel();
+        }
+
+        if (thumb.value != value) {
+            resolveValue(thumb, value, fromUser);
+        }
+    }
+
+    /**
+     * Moves a thumb and resolves all the others against the range constraints in a single step,
+     * so the listeners get a single call for the whole change.
+     */
+    private void resolveValue(Thumb thumb, long value, boolean fromUser) {
+        final Thumb[] thumbs = mThumbs;
+        final long[] values = mResolvedValues;
+        final boolean[] moved = mResolvedSet;
+        for (int i = 0; i < thumbs.length; i++) {
+            values[i] = thumbs[i].value;
+        }
+        final int from = thumb.index;
+        final int to = mRangeConstraints.resolve(values, from, value, mMin, mMax);
+        boolean changed = false;
+        for (int i = 0; i < thumbs.length; i++) {
+            //Swapped thumbs get another drawable, so they need new bounds too
+            moved[i] = values[i] != thumbs[i].value || (i >= Math.min(from, to) && i <= Math.max(from, to) && from != to);
+            changed |= moved[i];
+        }
+        if (!changed) {
+            return;
+        }
+        if (from != to) {
+            moveThumbDrawable(from, to);
+        }
+        for (int i = 0; i < thumbs.length; i++) {
+            thumbs[i].value = values[i];
+        }
+        updateProgressMessage(values[to]);
+        for (int i = 0; i < thumbs.length; i++) {
+            if (moved[i]) {
+                updateThumbPosFromCurrentProgress(thumbs[i], values[i]);
+            }
+        }
+        //Last: a listener may set another value, reusing the scratch arrays
+        notifyProgress(to, fromUser);
+    }
+
+    /**
+     * When swapping, the moved thumb takes another place. Its drawable (maybe pressed) follows it
+     * and the ones in between shift one place back.
+     */
+    private void moveThumbDrawable(int from, int to) {
+        final Thumb[] thumbs = mThumbs;
+        final ThumbDrawable drawable = thumbs[from].drawable;
+        if (to > from) {
+            for (int i = from; i < to; i++) {
+                thumbs[i].drawable = thumbs[i + 1].drawable;
+            }
+        } else {
+            for (int i = from; i > to; i--) {
+                thumbs[i].drawable = thumbs[i - 1].drawable;
+            }
+        }
+        thumbs[to].drawable = drawable;
+        if (mActiveThumb == thumbs[from]) {
+            mActiveThumb = thumbs[to];
+        }
+    }
+
+    /**
+     * Moves the thumbs that break the order or the range constraints, notifying the listeners once
+     */
+    private void enforceRangeConstraints() {
+        if (!mRange) {
+            return;
+        }
+        final long[] values = mResolvedValues;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = mThumbs[i].value;
+        }
+        mRangeConstraints.normalize(values, mMin, mMax);
+        applyEdit(mMin, mMax, values, false);
+    }
+
+    /**
+     * What happens when a thumb runs into another one in range mode, while dragging or when setting a value.
+     * <p>
+     * The whole move is resolved at once, so a fast drag follows the finger as far as the constraints
+     * allow and the listeners get a single call with every thumb already in place.
+     * Keyboard moves and flings follow the same rules.
+     * </p>
+     *
+     * @param behavior one of {@link #RANGE_BLOCK}, {@link #RANGE_PUSH} or {@link #RANGE_SWAP}
+     */
+    public void setRangeBehavior(int behavior) {
+        if (behavior != RANGE_BLOCK && behavior != RANGE_PUSH && behavior != RANGE_SWAP) {
+            throw new IllegalArgumentException("Unknown range behavior: " + behavior);
+        }
+        mRangeConstraints.setBehavior(behavior);
+    }
+
+    public int getRangeBehavior() {
+        return mRangeConstraints.getBehavior();
+    }
+
+    /**
+     * Minimum distance between two neighbour thumbs in range mode.
+     * It's reduced if the thumbs wouldn't fit between min and max.
+     * <p>
+     * Thumbs closer than that are moved apart, notifying the listeners as not coming from the user.
+     * </p>
+     *
+     * @param gap the minimum distance in values. By default it's 0 (thumbs can overlap)
+     */
+    public void setMinRangeGap(long gap) {
+        if (gap < 0) {
+            throw new IllegalArgumentException("The gap can't be negative");
+        }
+        mRangeConstraints.setMinGap(gap);
+        enforceRangeConstraints();
+    }
+
+    public long getMinRangeGap() {
+        return mRangeConstraints.getMinGap();
+    }
+
+    /**
+     * Maximum distance from the first to the last thumb in range mode.
+     * It's increased if the minimum gaps wouldn't fit.
+     * <p>
+     * If the thumbs are too far apart the upper ones are moved, notifying the listeners as not coming from the user.
+     * </p>
+     *
+     * @param span the maximum distance in values, or 0 for no maximum (the default)
+     */
+    public void setMaxRangeSpan(long span) {
+        if (span < 0) {
+            throw new IllegalArgumentException("The span can't be negative");
+        }
+        mRangeConstraints.setMaxSpan(span > 0 ? span : Long.MAX_VALUE);
+        enforceRangeConstraints();
+    }
+
+    /**
+     * @return the maximum distance from the first to the last thumb, or 0 if there's no maximum
+     */
+    public long getMaxRangeSpan() {
+        long span = mRangeConstraints.getMaxSpan();
+        return span == Long.MAX_VALUE ? 0 : span;
+    }
+
+    /**
+     * Starts a batch of changes to the min, max and values that will be applied at once
+     * when {@link DiscreteSeekBar.Editor#commit()} is called.
+     * <p>
+     * Use this instead of calling {@link #setMin(long)}, {@link #setMax(long)}, {@link #setLowerValue(long, boolean)}
+     * and {@link #setUpperValue(long, boolean)} in a row: those reposition the thumbs and notify listeners on every call,
+     * and some intermediate values can be moved by the range constraints.
+     * </p>
+     * <pre>
+     * seekBar.edit()
+     *         .setMin(0)
+     *         .setMax(500)
+     *         .setLowerValue(100)
+     *         .setUpperValue(400)
+     *         .commit();
+     * </pre>
+     *
+     * @return the (reused) Editor, with no pending changes
+     */
+    public Editor edit() {
+        if (mEditor == null) {
+            mEditor = new Editor();
+        }
+        return mEditor.reset();
+    }
+
+    /**
+     * Sorts out values that would cross each other: the explicitly set ones win over the others,
+     * and among them the lowest thumb wins.
+     */
+    private static void resolveOrder(long[] values, boolean[] set) {
+        final int count = values.length;
+        long limit = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            if (set[i]) {
+                values[i] = Math.max(values[i], limit);
+                limit = values[i];
+            }
+        }
+        //The others stay between the set ones
+        limit = Long.MAX_VALUE;
+        for (int i = count - 1; i >= 0; i--) {
+            if (set[i]) {
+                limit = values[i];
+            } else {
+                values[i] = Math.min(values[i], limit);
+            }
+        }
+        for (int i = 1; i < count; i++) {
+            values[i] = Math.max(values[i], values[i - 1]);
+        }
+    }
+
+    private void applyEdit(long min, long max, long[] values, boolean fromUser) {
+        if (isAnimationRunning()) {
+            mPositionAnimator.cancel();
+        }
+        boolean rangeChanged = min != mMin || max != mMax;
+        boolean maxChanged = max != mMax;
+        int lastChanged = -1;
+        int changedCount = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != mThumbs[i].value) {
+                lastChanged = i;
+                changedCount++;
+            }
+        }
+        if (!rangeChanged && lastChanged < 0) {
+            return;
+        }
+        mMin = min;
+        mMax = max;
+        for (int i = 0; i < values.length; i++) {
+            mThumbs[i].value = values[i];
+        }
+        if (rangeChanged) {
+            invalidateLabelCache();
+            updateKeyboardRange();
+            layoutTickMarks();
+        }
+        if (maxChanged) {
+            updateIndicatorSizes();
+        }
+        if (lastChanged >= 0) {
+            updateProgressMessage(values[lastChanged]);
+        }
+        for (Thumb thumb : mThumbs) {
+            updateThumbPosFromCurrentProgress(thumb, thumb.value);
+        }
+        //Last: values may be a scratch array a listener reuses by setting another value
+        if (lastChanged >= 0) {
+            notifyProgress(changedCount == 1 ? lastChanged : -1, fromUser);
+        }
+    }
+
+    /**
+     * Sets the range and values at once without notifying any listener nor animating anything.
+     * <p>
+     * Meant for recycled views (like {@code RecyclerView} rows): any drag, animation,
+     * pending notification or visible indicator left by the previous item is discarded, and the indicator
+     * is only measured again if the label for the max value changes.
+     * </p>
+     * <pre>
+     * public void onBindViewHolder(ViewHolder holder, int position) {
+     *     Item item = items.get(position);
+     *     holder.seekBar.bind(item.min, item.max, item.lower, item.upper);
+     * }
+     * </pre>
+     * Values are adjusted with the same rules as {@link DiscreteSeekBar.Editor#commit()}.
+     *
+     * @param min   the new min value
+     * @param max   the new max value
+     * @param lower the progress, or the lower value in range mode
+     * @param upper the value of the last thumb, ignored if the {@link DiscreteSeekBar} is not in range mode.
+     *              The thumbs in between keep their values as long as they fit.
+     */
+    public void bind(long min, long max, long lower, long upper) {
+        resetTransientState();
+        //Same rules as setMin
+        min = Math.min(min, Long.MAX_VALUE - 1);
+        max = TrackMath.fitMax(min, max);
+        final long[] values = mResolvedValues;
+        final boolean[] set = mResolvedSet;
+        final int last = values.length - 1;
+        for (int i = 0; i <= last; i++) {
+            values[i] = adjustValue(i == 0 ? lower : (i == last ? upper : mThumbs[i].value), min, max);
+            set[i] = i == 0 || i == last;
+        }
+        resolveOrder(values, set);
+        mRangeConstraints.normalize(values, min, max);
+        boolean rangeChanged = min != mMin || max != mMax;
+        boolean maxChanged = max != mMax;
+        mMin = min;
+        mMax = max;
+        for (int i = 0; i <= last; i++) {
+            mThumbs[i].value = values[i];
+        }
+        if (rangeChanged) {
+            invalidateLabelCache();
+            updateKeyboardRange();
+            layoutTickMarks();
+        }
+        if (maxChanged) {
+            updateIndicatorSizes();
+        }
+        updateProgressMessage(values[0]);
+        for (Thumb thumb : mThumbs) {
+            updateThumbPosFromCurrentProgress(thumb, thumb.value);
+        }
+        writeToModel();
+    }
+
+    /**
+     * Drops everything related to an ongoing interaction, without notifying it
+     */
+    private void resetTransientState() {
+        if (mPositionAnimator != null) {
+            mPositionAnimator.cancel();
+        }
+        //A pending change belongs to the previous item
+        if (mDispatchPending) {
+            mDispatchPending = false;
+            mFrameScheduler.remove(mDispatchCallback);
+        }
+        removeCallbacks(mShowIndicatorRunnable);
+        mVelocity.clear();
+        mIsDragging = false;
+        mForceBubble = false;
+        if (mIndicator != null) {
+            mIndicator.dismissComplete();
+            if (mIndicatorPool != null) {
+                releaseIndicator();
+            }
+        }
+        mActiveThumb.drawable.animateToNormal();
+        mActiveThumb = mThumbs[0];
+        if (isPressed()) {
+            setPressed(false);
+        }
+    }
+
+    /**
+     * Binds this DiscreteSeekBar to a {@link SeekBarModel}, which can be updated from any thread.
+     * <p>
+     * The model values are applied at most once per frame (only the latest ones) and notified to the listeners
+     * as not coming from the user. Every change of the values (made by the user, by code or by clamping them
+     * to the range) is written back into the model.
+     * </p>
+     *
+     * @param model the model, or null to stop observing the current one
+     */
+    public void setModel(@Nullable SeekBarModel model) {
+        if (mModel != null) {
+            mModel.removeObserver(mModelObserver);
+        }
+        mModel = model;
+        if (model != null) {
+            if (getWindowToken() != null) {
+                model.addObserver(mModelObserver);
+            }
+            applyModel();
+        }
+    }
+
+    @Nullable
+    public SeekBarModel getModel() {
+        return mModel;
+    }
+
+    /**
+     * Subscribes this DiscreteSeekBar to a stream of values while it's attached to a window.
+     * <p>
+     * Values can be pushed from any thread and as fast as needed: they go through the {@link SeekBarModel}
+     * (one is created if none was set) so only the latest ones are applied, once per frame.
+     * Values pushed while the user is dragging or while the thumb is animating are dropped,
+     * the user input always wins.
+     * </p>
+     *
+     * @param source the source, or null to unsubscribe from the current one
+     * @see ValuePublisher
+     */
+    public void setValueSource(@Nullable ValueSource source) {
+        unsubscribeValueSource();
+        mValueSource = source;
+        if (source != null) {
+            if (mModel == null) {
+                setModel(new SeekBarModel(mThumbs[0].value, mThumbs[mThumbs.length - 1].value));
+            }
+            if (getWindowToken() != null) {
+                subscribeValueSource();
+            }
+        }
+    }
+
+    private void subscribeValueSource() {
+        if (mValueSource != null && mValueSubscription == null) {
+            mValueSubscription = mValueSource.subscribe(mValueSink);
+        }
+    }
+
+    private void unsubscribeValueSource() {
+        if (mValueSubscription != null) {
+            mValueSubscription.cancel();
+            mValueSubscription = null;
+        }
+    }
+
+    private final ValueSource.Sink mValueSink = new ValueSource.Sink() {
+        @Override
+        public void onValue(long lower, long upper) {
+            //Any thread. Never overwrite what the user is doing
+            final SeekBarModel model = mModel;
+            if (model != null && !mIsDragging) {
+                model.setValues(lower, upper);
+            }
+        }
+    };
+
+    private final SeekBarModel.Observer mModelObserver = new SeekBarModel.Observer() {
+        @Override
+        public void onModelChanged(SeekBarModel model) {
+            //Any thread. Only the first write since the last update posts a new one
+            if (mModelUpdatePending.compareAndSet(false, true)) {
+                ViewCompat.postOnAnimation(DiscreteSeekBar.this, mApplyModelRunnable);
+            }
+        }
+    };
+
+    private final Runnable mApplyModelRunnable = new Runnable() {
+        @Override
+        public void run() {
+            applyModel();
+        }
+    };
+
+    private void applyModel() {
+        //Reset before reading, so writes made from now on post a new update
+        mModelUpdatePending.set(false);
+        final SeekBarModel model = mModel;
+        //The user input wins: it's written back into the model anyway
+        if (model == null || mIsDragging || isAnimationRunning()) {
+            return;
+        }
+        SeekBarModel.Values values = model.getValues();
+        long lower = values.lower;
+        long upper = values.upper;
+        //Our own changes come back here, don't let them cancel a running animation
+        if (lower != mThumbs[0].value || (mRange && upper != mThumbs[mThumbs.length - 1].value)) {
+            mApplyingModelValues = values;
+            try {
+                edit().setLowerValue(lower).setUpperValue(upper).commit(false);
+            } finally {
+                mApplyingModelValues = null;
+            }
+        }
+    }
+
+    /**
+     * Keeps the model in sync with every committed change, otherwise writing the old value
+     * again into the model would be ignored
+     */
+    private void writeToModel() {
+        final SeekBarModel model = mModel;
+        if (model == null) {
+            return;
+        }
+        final long lower = mThumbs[0].value;
+        final long upper = mThumbs[mThumbs.length - 1].value;
+        final SeekBarModel.Values applying = mApplyingModelValues;
+        if (applying != null) {
+            //The values just read from the model, adjusted to our range. Newer writes from other threads win
+            mApplyingModelValues = null;
+            model.compareAndSetValues(applying, lower, mRange ? upper : applying.upper);
+        } else if (mRange) {
+            model.setValues(lower, upper);
+        } else {
+            model.setLowerValue(lower);
+        }
+    }
+
+    /**
+     * Get the current progress
+     *
+     * @return the current progress :-P
+     */
+    public int getProgress() {
+        return TrackMath.toInt(mThumbs[0].value);
+    }
+
+    /**
+     * @return the current progress, or the lower value in range mode
+     */
+    public long getProgressLong() {
+        return mThumbs[0].value;
+    }
+
+    /**
+     * @return the value of the last thumb in range mode
+     */
+    public long getUpperValueLong() {
+        return mThumbs[mThumbs.length - 1].value;
+    }
+
+    /**
+     * Sets a listener to receive notifications of changes to the DiscreteSeekBar's progress level. Also
+     * provides notifications of when the DiscreteSeekBar shows/hides the bubble indicator.
+     *
+     * @param listener The seek bar notification listener
+     * @see DiscreteSeekBar.OnProgressChangeListener
+     */
+    public void setOnProgressChangeListener(@Nullable OnProgressChangeListener listener) {
+        mPublicChangeListener = listener;
+    }
+
+    public void setOnRangeChangeListener(@Nullable OnRangeChangeListener listener) {
+        mRangeChangeListener = listener;
+    }
+
+    /**
+     * Sets a listener receiving the values as longs, for ranges that don't fit in an int.
+     * It's notified along with the {@link DiscreteSeekBar.OnProgressChangeListener} or {@link DiscreteSeekBar.OnRangeChangeListener}.
+     */
+    public void setOnValueChangeListener(@Nullable OnValueChangeListener listener) {
+        mValueChangeListener = listener;
+    }
+
+    /**
+     * Sets a listener receiving the value of every thumb and which one changed.
+     * It's notified along with the {@link DiscreteSeekBar.OnProgressChangeListener} or {@link DiscreteSeekBar.OnRangeChangeListener}.
+     */
+    public void setOnThumbsChangeListener(@Nullable OnThumbsChangeListener listener) {
+        mThumbsChangeListener = listener;
+    }
+
+    /**
+     * Sets the color of the seek thumb, as well as the color of the popup indicator.
+     *
+     * @param thumbColor     The color the seek thumb will be changed to
+     * @param indicatorColor The color the popup indicator will be changed to
+     *                       The indicator will animate from thumbColor to indicatorColor
+     *                       when opening
+     */
+    public void setThumbColor(int thumbColor, int indicatorColor) {
+        for (Thumb thumb : mThumbs) {
+            thumb.drawable.setColorStateList(ColorStateList.valueOf(thumbColor));
+        }
+        setIndicatorColors(indicatorColor, thumbColor);
+    }
+
+    /**
+     * Sets the color of the seek thumb, as well as the color of the popup indicator.
+     *
+     * @param thumbColorStateList The ColorStateList the seek thumb will be changed to
+     * @param indicatorColor      The color the popup indicator will be changed to
+     *                            The indicator will animate from thumbColorStateList(pressed state) to indicatorColor
+     *                            when opening
+     */
+    public void setThumbColor(@NonNull ColorStateList thumbColorStateList, int indicatorColor) {
+        for (Thumb thumb : mThumbs) {
+            thumb.drawable.setColorStateList(thumbColorStateList);
+        }
+        //we use the "pressed" color to morph the indicator from it to its own color
+        int thumbColor = thumbColorStateList.getColorForState(new int[]{PRESSED_STATE}, thumbColorStateList.getDefaultColor());
+        setIndicatorColors(indicatorColor, thumbColor);
+    }
+
+    private void setIndicatorColors(int indicatorColor, int thumbColor) {
+        if (mIndicatorConfig != null) {
+            mIndicatorConfig.setColors(indicatorColor, thumbColor);
+        }
+        if (mIndicator != null) {
+            mIndicator.setColors(indicatorColor, thumbColor);
+        }
+    }
+
+    /**
+     * Sets the color of the seekbar scrubber
+     *
+     * @param color The color the track  scrubber will be changed to
+     */
+    public void setScrubberColor(int color) {
+        mScrubber.setColorStateList(ColorStateList.valueOf(color));
+    }
+
+    /**
+     * Sets the color of the seekbar scrubber
+     *
+     * @param colorStateList The ColorStateList the track scrubber will be changed to
+     */
+    public void setScrubberColor(@NonNull ColorStateList colorStateList) {
+        mScrubber.setColorStateList(colorStateList);
+    }
+
+    /**
+     * Sets the color of the seekbar ripple
+     *
+     * @param color The color the track  ripple will be changed to
+     */
+    public void setRippleColor(int color) {
+        setRippleColor(new ColorStateList(new int[][]{new int[]{}}, new int[]{color}));
+    }
+
+    /**
+     * Sets the color of the seekbar ripple
+     *
+     * @param colorStateList The ColorStateList the track ripple will be changed to
      */
     public void setRippleColor(@NonNull ColorStateList colorStateList) {
         SeekBarCompat.setRippleColor(mRipple, colorStateList);
@@ -587,6 +1609,7 @@ public class DiscreteSeekBar extends View {
      */
     public void setTrackColor(int color) {
         mTrack.setColorStateList(ColorStateList.valueOf(color));
+        invalidateStaticLayer();
     }
 
     /**
@@ -596,38 +1619,405 @@ public class DiscreteSeekBar extends View {
      */
     public void setTrackColor(@NonNull ColorStateList colorStateList) {
         mTrack.setColorStateList(colorStateList);
+        invalidateStaticLayer();
+    }
+
+    /**
+     * If {@code enabled} the track is recorded once (into a RenderNode or Picture when possible)
+     * and replayed on every draw, so only the moving parts are drawn again while dragging.
+     * It's enabled by default.
+     */
+    public void setLayeredRenderingEnabled(boolean enabled) {
+        if (enabled && mStaticLayer == null) {
+            mStaticLayer = StaticLayer.create();
+        } else if (!enabled && mStaticLayer != null) {
+            mStaticLayer.release();
+            mStaticLayer = null;
+        }
+        invalidate();
+    }
+
+    /**
+     * Draws a tick mark every {@code interval} values (and at max). With a {@link ValueScale#values(long...)}
+     * scale the interval counts allowed values.
+     * <p>
+     * Tick marks closer than {@link #setTickMarkMinSpacing(int)} to the previous one are skipped,
+     * so they don't turn into a solid line for big ranges.
+     * </p>
+     *
+     * @param interval values between tick marks, 0 to remove them (the default)
+     */
+    public void setTickMarkInterval(long interval) {
+        mTickMarkInterval = Math.max(0, interval);
+        if (mTickMarkInterval == 0) {
+            mTickMarks = null;
+        } else {
+            if (mTickMarks == null) {
+                mTickMarks = new TickMarks(mTickMarkColor, mActiveTickMarkColor, mTickMarkSize);
+                mTickMarks.setCallback(this);
+                mTickMarks.setState(getDrawableState());
+            }
+            mTickMarks.setSpacing(mTickMarkInterval, mTickMarkMinSpacing);
+        }
+        layoutTickMarks();
+        invalidateStaticLayer();
+    }
+
+    /**
+     * Sets the minimum distance between two tick marks
+     *
+     * @param spacing distance in pixels, the default is {@value #TICK_MARK_MIN_SPACING_DP}dp
+     */
+    public void setTickMarkMinSpacing(int spacing) {
+        mTickMarkMinSpacing = Math.max(1, spacing);
+        if (mTickMarks != null) {
+            mTickMarks.setSpacing(mTickMarkInterval, mTickMarkMinSpacing);
+            layoutTickMarks();
+        }
+    }
+
+    /**
+     * Sets the diameter of the tick marks
+     *
+     * @param size diameter in pixels
+     */
+    public void setTickMarkSize(int size) {
+        mTickMarkSize = size;
+        if (mTickMarks != null) {
+            mTickMarks.setSize(size);
+            invalidateStaticLayer();
+        }
+    }
+
+    /**
+     * Sets the colors of the tick marks
+     *
+     * @param color       The ColorStateList for the tick marks over the track
+     * @param activeColor The ColorStateList for the tick marks over the scrubber
+     */
+    public void setTickMarkColors(@NonNull ColorStateList color, @NonNull ColorStateList activeColor) {
+        mTickMarkColor = color;
+        mActiveTickMarkColor = activeColor;
+        if (mTickMarks != null) {
+            mTickMarks.setColors(color, activeColor);
+            mTickMarks.setState(getDrawableState());
+            invalidateStaticLayer();
+        }
+    }
+
+    /**
+     * Computes the tick marks positions, for a new size, range or scale
+     */
+    private void layoutTickMarks() {
+        if (mTickMarks == null) {
+            return;
+        }
+        final Rect track = mTrack.getBounds();
+        final int available = getAvailableTrackSize(mThumbs[0]);
+        final int origin = getTrackOrigin();
+        final int direction = getTrackDirection();
+        if (mVertical) {
+            mTickMarks.layout(mValueScale, mMin, mMax, available, track.exactCenterX(), origin, 0, direction);
+        } else {
+            mTickMarks.layout(mValueScale, mMin, mMax, available, origin, track.exactCenterY(), direction, 0);
+        }
+        mTickMarks.setActiveSpans(mScrubber.getSegmentOffsets(), mScrubber.getSegmentCount());
+        invalidateStaticLayer();
+    }
+
+    /**
+     * The x (or y if vertical) where the thumb center is at offset 0
+     */
+    private int getTrackOrigin() {
+        if (mVertical) {
+            int halfThumb = mThumbs[0].drawable.getIntrinsicHeight() / 2;
+            return isRtl() ? getHeight() - getPaddingBottom() - mAddedTouchBounds - halfThumb
+                    : getPaddingTop() + mAddedTouchBounds + halfThumb;
+        } else {
+            int halfThumb = mThumbs[0].drawable.getIntrinsicWidth() / 2;
+            return isRtl() ? getWidth() - getPaddingRight() - mAddedTouchBounds - halfThumb
+                    : getPaddingLeft() + mAddedTouchBounds + halfThumb;
+        }
+    }
+
+    private int getTrackDirection() {
+        return isRtl() ? -1 : 1;
+    }
+
+    private void invalidateStaticLayer() {
+        if (mStaticLayer != null) {
+            mStaticLayer.invalidate();
+        }
+        invalidate();
     }
 
     /**
      * If {@code enabled} is false the indicator won't appear. By default popup indicator is
      * enabled.
      */
-    public void setIndicatorPopupEnabled(boolean enabled) {
-        this.mIndicatorPopupEnabled = enabled;
+    public void setIndicatorPopupEnabled(boolean enabled) {
+        this.mIndicatorPopupEnabled = enabled;
+    }
+
+    /**
+     * Lends this DiscreteSeekBar's indicator to the other DiscreteSeekBars of the window
+     * (and uses theirs).
+     * <p>
+     * Only one indicator can be seen at a time, so screens with lots of DiscreteSeekBars can share a single one,
+     * reconfigured for the DiscreteSeekBar being used, instead of keeping one idle indicator per DiscreteSeekBar.
+     * </p>
+     *
+     * @param enabled true to use the indicator shared by the window. By default it's disabled.
+     */
+    public void setSharedIndicatorEnabled(boolean enabled) {
+        if (mSharedIndicator == enabled || mIndicatorConfig == null) {
+            return;
+        }
+        if (mIndicator != null) {
+            mIndicator.dismissComplete();
+            if (mIndicatorPool != null) {
+                releaseIndicator();
+            }
+            //A new one will be obtained when needed
+            mIndicator = null;
+        }
+        mSharedIndicator = enabled;
+    }
+
+    /**
+     * The indicator is built the first time it's going to be shown. Enabling this builds it
+     * earlier, when the UI thread becomes idle after this DiscreteSeekBar is attached,
+     * so the first press doesn't pay for it.
+     * <p>
+     * It has no effect with {@link #setSharedIndicatorEnabled(boolean)}
+     * </p>
+     *
+     * @param enabled true to build the indicator ahead of time. By default it's disabled.
+     */
+    public void setIndicatorPrewarmEnabled(boolean enabled) {
+        mIndicatorPrewarm = enabled;
+        if (enabled && getWindowToken() != null) {
+            schedulePrewarm();
+        } else if (!enabled) {
+            Looper.myQueue().removeIdleHandler(mPrewarmHandler);
+        }
+    }
+
+    private void schedulePrewarm() {
+        if (mIndicator == null && !mSharedIndicator && mIndicatorConfig != null) {
+            MessageQueue queue = Looper.myQueue();
+            //Just in case it was already queued
+            queue.removeIdleHandler(mPrewarmHandler);
+            queue.addIdleHandler(mPrewarmHandler);
+        }
+    }
+
+    private final MessageQueue.IdleHandler mPrewarmHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            if (mIndicator == null && !mSharedIndicator && getWindowToken() != null) {
+                obtainIndicator();
+            }
+            return false;
+        }
+    };
+
+    /**
+     * @return the indicator, created or taken from the window pool if needed
+     */
+    private PopupIndicator obtainIndicator() {
+        if (mIndicator == null) {
+            String maxLabel = getIndicatorSizingLabel();
+            if (mSharedIndicator) {
+                mIndicatorPool = IndicatorPool.get(this);
+                mIndicator = mIndicatorPool.checkout(mIndicatorClient, getContext(), mIndicatorConfig, maxLabel);
+            } else {
+                mIndicator = new PopupIndicator(getContext(), mIndicatorConfig, maxLabel);
+            }
+            mIndicatorSizingWidth = mIndicator.getLabelWidth(maxLabel);
+            mIndicator.setListener(mFloaterListener);
+            mIndicator.setFrameScheduler(mFrameScheduler);
+            updateProgressMessage(mActiveThumb.value);
+        }
+        return mIndicator;
+    }
+
+    /**
+     * Gives the shared indicator back to the pool
+     */
+    private void releaseIndicator() {
+        mIndicatorPool.release(mIndicatorClient);
+        mIndicatorPool = null;
+        mIndicator = null;
+    }
+
+    private final IndicatorPool.Client mIndicatorClient = new IndicatorPool.Client() {
+        @Override
+        public void onIndicatorRevoked() {
+            mIndicator = null;
+            mIndicatorPool = null;
+            mActiveThumb.drawable.animateToNormal();
+        }
+    };
+
+    private void updateIndicatorSizes() {
+        if (mIndicator != null) {
+            resizeIndicator(getIndicatorSizingLabel());
+        }
+    }
+
+    /**
+     * Resizes the indicator for a new max label, unless it renders as wide as the last one
+     */
+    private void resizeIndicator(String maxLabel) {
+        //Same width, same size: don't measure (and dismiss) the indicator again
+        float width = mIndicator.getLabelWidth(maxLabel);
+        if (width != mIndicatorSizingWidth) {
+            mIndicatorSizingWidth = width;
+            mIndicator.updateSizes(maxLabel);
+        }
+    }
+
+    /**
+     * The label used to measure the indicator: the one for the max value
+     */
+    private String getIndicatorSizingLabel() {
+        if (mAsyncSizeLabel != null) {
+            //Size it for a temporary label until the real one arrives
+            mAsyncSizeLabel.request(mMax);
+            CharSequence placeholder = mAsyncSizeLabel.getTransformer().getPlaceholder(mMax);
+            return placeholder != null ? placeholder.toString() : String.valueOf(mMax);
+        } else if (mNumericTransformer.useStringTransform()) {
+            return mNumericTransformer.transformToString(mMax);
+        } else {
+            return convertValueToMessage(mNumericTransformer.transform(mMax));
+        }
+    }
+
+    /**
+     * Changes how often the {@link DiscreteSeekBar.OnProgressChangeListener} and {@link DiscreteSeekBar.OnRangeChangeListener}
+     * are notified about changes made by the user.
+     * <p>
+     * While dragging fast, the value can change several times within a single frame. If your listener does expensive work
+     * you can use {@link #DISPATCH_PER_FRAME} or {@link #DISPATCH_THROTTLED} to coalesce those changes and only receive the latest value.
+     * Pending changes are always delivered before {@link DiscreteSeekBar.OnProgressChangeListener#onStopTrackingTouch(DiscreteSeekBar)}
+     * and before any change not made by the user.
+     * </p>
+     *
+     * @param mode one of {@link #DISPATCH_IMMEDIATE}, {@link #DISPATCH_PER_FRAME} or {@link #DISPATCH_THROTTLED}
+     */
+    public void setListenerDispatchMode(int mode) {
+        if (mode != DISPATCH_IMMEDIATE && mode != DISPATCH_PER_FRAME && mode != DISPATCH_THROTTLED) {
+            throw new IllegalArgumentException("Unknown dispatch mode: " + mode);
+        }
+        flushPendingProgress();
+        mDispatchMode = mode;
+    }
+
+    public int getListenerDispatchMode() {
+        return mDispatchMode;
+    }
+
+    /**
+     * Minimum time between two notifications when using {@link #DISPATCH_THROTTLED}
+     *
+     * @param intervalMillis the interval in milliseconds
+     */
+    public void setListenerDispatchInterval(int intervalMillis) {
+        if (intervalMillis < 0) {
+            throw new IllegalArgumentException("The interval can't be negative");
+        }
+        mDispatchInterval = intervalMillis;
+    }
+
+    /**
+     * @param thumb the thumb moved by the change, -1 if several
+     */
+    private void notifyProgress(int thumb, boolean fromUser) {
+        writeToModel();
+        if (fromUser && mDispatchMode != DISPATCH_IMMEDIATE) {
+            if (mDispatchMode == DISPATCH_THROTTLED && !mDispatchPending
+                    && mFrameScheduler.now() - mLastDispatchTime >= mDispatchInterval) {
+                dispatchProgress(thumb, true);
+            } else if (!mDispatchPending) {
+                mDispatchPending = true;
+                mPendingThumb = thumb;
+                mFrameScheduler.add(mDispatchCallback);
+            } else if (mPendingThumb != thumb) {
+                //Coalesced changes of different thumbs
+                mPendingThumb = -1;
+            }
+            return;
+        }
+        //Keep the order of the events
+        flushPendingProgress();
+        dispatchProgress(thumb, fromUser);
     }
 
-    private void updateIndicatorSizes() {
-        if (!isInEditMode()) {
-            if (mNumericTransformer.useStringTransform()) {
-                mIndicator.updateSizes(mNumericTransformer.transformToString(mMax));
-            } else {
-                mIndicator.updateSizes(convertValueToMessage(mNumericTransformer.transform(mMax)));
+    private final FrameScheduler.FrameCallback mDispatchCallback = new FrameScheduler.FrameCallback() {
+        @Override
+        public boolean onFrame(long frameTimeMillis) {
+            if (!mDispatchPending) {
+                return false;
             }
+            if (mDispatchMode == DISPATCH_THROTTLED && frameTimeMillis - mLastDispatchTime < mDispatchInterval) {
+                return true;
+            }
+            mDispatchPending = false;
+            dispatchProgress(mPendingThumb, true);
+            return false;
         }
+    };
 
+    /**
+     * Delivers the latest coalesced user change now, if any
+     */
+    private void flushPendingProgress() {
+        if (mDispatchPending) {
+            mDispatchPending = false;
+            mFrameScheduler.remove(mDispatchCallback);
+            dispatchProgress(mPendingThumb, true);
+        }
     }
 
-    private void notifyProgress(boolean fromUser) {
+    private void dispatchProgress(int thumb, boolean fromUser) {
+        mLastDispatchTime = mFrameScheduler.now();
+        if (mThumbsChangeListener != null) {
+            dispatchThumbsChanged(thumb, fromUser);
+        }
         if (mRange) {
             if (mRangeChangeListener != null) {
-                mRangeChangeListener.onRangeChanged(DiscreteSeekBar.this, mThumbs[0].value, mThumbs[1].value, fromUser);
+                mRangeChangeListener.onRangeChanged(DiscreteSeekBar.this,
+                        TrackMath.toInt(mThumbs[0].value), TrackMath.toInt(getUpperValueLong()), fromUser);
+            }
+            if (mValueChangeListener != null) {
+                mValueChangeListener.onValueChanged(DiscreteSeekBar.this, mThumbs[0].value, getUpperValueLong(), fromUser);
             }
         } else {
-            int value = mThumbs[0].value;
+            long value = mThumbs[0].value;
             if (mPublicChangeListener != null) {
-                mPublicChangeListener.onProgressChanged(DiscreteSeekBar.this, value, fromUser);
+                mPublicChangeListener.onProgressChanged(DiscreteSeekBar.this, TrackMath.toInt(value), fromUser);
             }
-            onValueChanged(value);
+            if (mValueChangeListener != null) {
+                mValueChangeListener.onValueChanged(DiscreteSeekBar.this, value, value, fromUser);
+            }
+            onValueChanged(TrackMath.toInt(value));
+        }
+    }
+
+    private void dispatchThumbsChanged(int thumb, boolean fromUser) {
+        final Thumb[] thumbs = mThumbs;
+        //A nested change gets its own array so the outer listener keeps its values
+        final long[] values = mDispatching ? new long[thumbs.length] : mListenerValues;
+        for (int i = 0; i < thumbs.length; i++) {
+            values[i] = thumbs[i].value;
+        }
+        boolean wasDispatching = mDispatching;
+        mDispatching = true;
+        try {
+            mThumbsChangeListener.onThumbsChanged(DiscreteSeekBar.this, thumb, values, fromUser);
+        } finally {
+            mDispatching = wasDispatching;
         }
     }
 
@@ -675,11 +2065,11 @@ public class DiscreteSeekBar extends View {
     }
 
     private void updateKeyboardRange() {
-        int range = mMax - mMin;
+        long range = mMax - mMin;
         if ((mKeyProgressIncrement == 0) || (range / mKeyProgressIncrement > 20)) {
             // It will take the user too long to change this via keys, change it
             // to something more reasonable
-            mKeyProgressIncrement = Math.max(1, Math.round((float) range / 20));
+            mKeyProgressIncrement = Math.max(1, Math.round((double) range / 20));
         }
     }
 
@@ -704,7 +2094,7 @@ public class DiscreteSeekBar extends View {
         super.onLayout(changed, left, top, right, bottom);
         if (changed) {
             removeCallbacks(mShowIndicatorRunnable);
-            if (!isInEditMode()) {
+            if (mIndicator != null) {
                 mIndicator.dismissComplete();
             }
             updateFromDrawableState();
@@ -728,53 +2118,89 @@ public class DiscreteSeekBar extends View {
             int paddingTop = getPaddingTop() + addedThumb;
             int paddingBottom = getPaddingBottom();
             int right = getWidth() - getPaddingRight() - addedThumb;
-            mThumbs[0].drawable.setBounds(right - thumbHeight, paddingTop, right, paddingBottom + thumbWidth);
-            if (mRange) {
-                mThumbs[1].drawable.setBounds(right - thumbHeight, paddingTop, right, paddingBottom + thumbWidth);
+            for (Thumb thumb : mThumbs) {
+                thumb.drawable.setBounds(right - thumbHeight, paddingTop, right, paddingBottom + thumbWidth);
             }
             int trackHeight = Math.max(mTrackHeight / 2, 1);
             mTrack.setBounds(right - halfThumb - trackHeight, paddingTop + halfThumb,
                     right - halfThumb + trackHeight, getHeight() - halfThumb - paddingBottom - addedThumb);
             int scrubberHeight = Math.max(mScrubberHeight / 2, 2);
+            //Only the cross axis matters, the segments are set along the track
             mScrubber.setBounds(right - halfThumb - scrubberHeight, paddingTop + halfThumb,
-                    right - halfThumb + scrubberHeight, paddingTop + halfThumb);
+                    right - halfThumb + scrubberHeight, getHeight() - halfThumb - paddingBottom - addedThumb);
 
         } else {
             int halfThumb = thumbWidth / 2;
             int paddingLeft = getPaddingLeft() + addedThumb;
             int paddingRight = getPaddingRight();
             int bottom = getHeight() - getPaddingBottom() - addedThumb;
-            mThumbs[0].drawable.setBounds(paddingLeft, bottom - thumbHeight, paddingLeft + thumbWidth, bottom);
-            if (mRange) {
-                mThumbs[1].drawable.setBounds(paddingLeft, bottom - thumbHeight, paddingLeft + thumbWidth, bottom);
+            for (Thumb thumb : mThumbs) {
+                thumb.drawable.setBounds(paddingLeft, bottom - thumbHeight, paddingLeft + thumbWidth, bottom);
             }
             int trackHeight = Math.max(mTrackHeight / 2, 1);
             mTrack.setBounds(paddingLeft + halfThumb, bottom - halfThumb - trackHeight,
                     getWidth() - halfThumb - paddingRight - addedThumb, bottom - halfThumb + trackHeight);
             int scrubberHeight = Math.max(mScrubberHeight / 2, 2);
             mScrubber.setBounds(paddingLeft + halfThumb, bottom - halfThumb - scrubberHeight,
-                    paddingLeft + halfThumb, bottom - halfThumb + scrubberHeight);
+                    getWidth() - halfThumb - paddingRight - addedThumb, bottom - halfThumb + scrubberHeight);
         }
+        mScrubber.setTrack(mVertical, getTrackOrigin(), getTrackDirection());
 
+        if (mStaticLayer != null) {
+            mStaticLayer.invalidate();
+        }
+        layoutTickMarks();
         //Update the thumb position after size changed
-        updateThumbPosFromCurrentProgress(mThumbs[0], mThumbs[0].value);
-        if (mRange) {
-            updateThumbPosFromCurrentProgress(mThumbs[1], mThumbs[1].value);
+        for (Thumb thumb : mThumbs) {
+            updateThumbPosFromCurrentProgress(thumb, thumb.value);
         }
     }
 
     @Override
-    protected synchronized void onDraw(Canvas canvas) {
+    protected void onDraw(Canvas canvas) {
         if (!isLollipopOrGreater) {
             mRipple.draw(canvas);
         }
         super.onDraw(canvas);
-        mTrack.draw(canvas);
+        if (mStaticLayer != null) {
+            mStaticLayer.draw(canvas, getWidth(), getHeight(), mStaticLayerRecorder);
+        } else {
+            drawStaticLayer(canvas);
+        }
         mScrubber.draw(canvas);
-        mThumbs[0].drawable.draw(canvas);
-        if (mRange) {
-            mThumbs[1].drawable.draw(canvas);
+        if (mTickMarks != null) {
+            mTickMarks.drawActive(canvas);
         }
+        for (Thumb thumb : mThumbs) {
+            thumb.drawable.draw(canvas);
+        }
+        mDirtyRegions.drawDebug(canvas);
+    }
+
+    /**
+     * Draws everything that doesn't move while dragging
+     */
+    private void drawStaticLayer(Canvas canvas) {
+        mTrack.draw(canvas);
+        if (mTickMarks != null) {
+            mTickMarks.drawInactive(canvas);
+        }
+    }
+
+    private final StaticLayer.Recorder mStaticLayerRecorder = new StaticLayer.Recorder() {
+        @Override
+        public void onRecordLayer(Canvas canvas) {
+            drawStaticLayer(canvas);
+        }
+    };
+
+    @Override
+    public void invalidateDrawable(@NonNull Drawable who) {
+        boolean staticContent = who == mTrack || (mTickMarks != null && who == mTickMarks.getInactiveDrawable());
+        if (staticContent && mStaticLayer != null) {
+            mStaticLayer.invalidate();
+        }
+        super.invalidateDrawable(who);
     }
 
     @Override
@@ -802,22 +2228,83 @@ public class DiscreteSeekBar extends View {
         } else {
             hideFloater();
         }
-        mThumbs[0].drawable.setState(state);
-        if (mRange) {
-            mThumbs[1].drawable.setState(state);
+        for (Thumb thumb : mThumbs) {
+            thumb.drawable.setState(state);
         }
         mTrack.setState(state);
         mScrubber.setState(state);
+        if (mTickMarks != null) {
+            mTickMarks.setState(state);
+        }
         mRipple.setState(state);
     }
 
-    private void updateProgressMessage(int value) {
-        if (!isInEditMode()) {
-            mIndicator.setValue(getValueAsString(value));
+    private void updateProgressMessage(long value) {
+        if (mIndicator != null) {
+            if (mAsyncLabel != null) {
+                requestAsyncLabel(value);
+            } else if (mLabelCache != null) {
+                mIndicator.setValue(getCachedLabel(value));
+            } else if (mNumericTransformer.useStringTransform()) {
+                mIndicator.setValue(mNumericTransformer.transformToString(value));
+            } else {
+                LabelBuffer label = formatValue(mNumericTransformer.transform(value));
+                mIndicator.setValue(label.getChars(), 0, label.length());
+            }
         }
     }
 
-    public String getValueAsString(int value) {
+    private void requestAsyncLabel(long value) {
+        mAsyncWantedValue = value;
+        if (mLabelCache != null) {
+            if (!Locale.getDefault().equals(mLabelCache.getLocale())) {
+                invalidateLabelCache();
+            }
+            CharSequence cached = mLabelCache.get(value);
+            if (cached != null) {
+                mIndicator.setValue(cached);
+                return;
+            }
+        }
+        CharSequence placeholder = mAsyncLabel.getTransformer().getPlaceholder(value);
+        if (placeholder != null) {
+            mIndicator.setValue(placeholder);
+        }
+        mAsyncLabel.request(value);
+    }
+
+    void onAsyncLabel(AsyncLabelRequest request, long value, String label) {
+        if (mIndicator == null) {
+            //It will ask again when the indicator is created
+            return;
+        }
+        if (request.isForSizes()) {
+            if (request == mAsyncSizeLabel && value == mMax) {
+                resizeIndicator(label);
+            }
+        } else if (request == mAsyncLabel) {
+            if (mLabelCache != null) {
+                mLabelCache.put(value, label);
+            }
+            if (value == mAsyncWantedValue) {
+                mIndicator.setValue(label);
+            }
+        }
+    }
+
+    private CharSequence getCachedLabel(long value) {
+        if (!Locale.getDefault().equals(mLabelCache.getLocale())) {
+            invalidateLabelCache();
+        }
+        CharSequence label = mLabelCache.get(value);
+        if (label == null) {
+            label = getValueAsString(value);
+            mLabelCache.put(value, label);
+        }
+        return label;
+    }
+
+    public String getValueAsString(long value) {
         if (mNumericTransformer.useStringTransform()) {
             return mNumericTransformer.transformToString(value);
         } else {
@@ -825,28 +2312,39 @@ public class DiscreteSeekBar extends View {
         }
     }
 
-    private String convertValueToMessage(int value) {
-        String format = mIndicatorFormatter != null ? mIndicatorFormatter : DEFAULT_FORMATTER;
-        //We're trying to re-use the Formatter here to avoid too much memory allocations
-        //But I'm not completey sure if it's doing anything good... :(
-        //Previously, this condition was wrong so the Formatter was always re-created
-        //But as I fixed the condition, the formatter started outputting trash characters from previous
-        //calls, so I mark the StringBuilder as empty before calling format again.
+    /**
+     * @deprecated Use {@link #getValueAsString(long)} instead, this overload is only kept for binary compatibility.
+     * The DiscreteSeekBar only calls the long version, override that one.
+     */
+    @Deprecated
+    public String getValueAsString(int value) {
+        return getValueAsString((long) value);
+    }
+
+    private String convertValueToMessage(long value) {
+        //Don't use mLabelBuffer here, the indicator TextView may be holding it
+        return getLabelFormat().format(value);
+    }
 
-        //Anyways, I see the memory usage still go up on every call to this method
-        //and I have no clue on how to fix that... damn Strings...
-        if (mFormatter == null || !mFormatter.locale().equals(Locale.getDefault())) {
-            int bufferSize = format.length() + String.valueOf(mMax).length();
-            if (mFormatBuilder == null) {
-                mFormatBuilder = new StringBuilder(bufferSize);
-            } else {
-                mFormatBuilder.ensureCapacity(bufferSize);
-            }
-            mFormatter = new Formatter(mFormatBuilder, Locale.getDefault());
-        } else {
-            mFormatBuilder.setLength(0);
+    /**
+     * Formats the value into our reused {@link LabelBuffer}.
+     * This doesn't allocate anything while dragging.
+     */
+    private LabelBuffer formatValue(long value) {
+        getLabelFormat().format(value, mLabelBuffer);
+        return mLabelBuffer;
+    }
+
+    /**
+     * The format string is only parsed again when it or the default Locale changes
+     */
+    private LabelFormat getLabelFormat() {
+        Locale locale = Locale.getDefault();
+        if (mLabelFormat == null || !mLabelFormat.getLocale().equals(locale)) {
+            String format = mIndicatorFormatter != null ? mIndicatorFormatter : DEFAULT_FORMATTER;
+            mLabelFormat = LabelFormat.compile(format, locale);
         }
-        return mFormatter.format(format, value).toString();
+        return mLabelFormat;
     }
 
     @Override
@@ -857,10 +2355,17 @@ public class DiscreteSeekBar extends View {
         int actionMasked = MotionEventCompat.getActionMasked(event);
         switch (actionMasked) {
             case MotionEvent.ACTION_DOWN:
+                if (isAnimationRunning()) {
+                    //Touching stops any fling
+                    mPositionAnimator.cancel();
+                }
                 mDownX = mVertical ? event.getY() : event.getX();
+                mVelocity.clear();
+                addTouchSamples(event);
                 startDragging(event, isInScrollingContainer());
                 break;
             case MotionEvent.ACTION_MOVE:
+                addTouchSamples(event);
                 if (isDragging()) {
                     updateDragging(event);
                 } else {
@@ -871,11 +2376,16 @@ public class DiscreteSeekBar extends View {
                 }
                 break;
             case MotionEvent.ACTION_UP:
+                addTouchSamples(event);
                 if (!isDragging() && mAllowTrackClick) {
                     startDragging(event, false);
                     updateDragging(event);
                 }
+                boolean fling = mFlingEnabled && isDragging();
                 stopDragging();
+                if (fling) {
+                    fling(getTouchVelocity());
+                }
                 break;
             case MotionEvent.ACTION_CANCEL:
                 stopDragging();
@@ -884,30 +2394,69 @@ public class DiscreteSeekBar extends View {
         return true;
     }
 
+    /**
+     * Feeds the velocity tracker with every sample batched into the event (the historical ones first)
+     * <p>
+     * Touch panels usually report faster than the display refreshes, so a single ACTION_MOVE
+     * can carry several samples. We only need the last one to position the thumb, but all of them
+     * for an accurate velocity.
+     * </p>
+     */
+    private void addTouchSamples(MotionEvent event) {
+        final VelocityRing velocity = mVelocity;
+        final boolean vertical = mVertical;
+        final int historySize = event.getHistorySize();
+        for (int i = 0; i < historySize; i++) {
+            velocity.add(event.getHistoricalEventTime(i), vertical ? event.getHistoricalY(i) : event.getHistoricalX(i));
+        }
+        velocity.add(event.getEventTime(), vertical ? event.getY() : event.getX());
+    }
+
+    /**
+     * The current pointer velocity along the track in pixels per second
+     * (positive towards the right/bottom, not mirrored for RTL)
+     */
+    private float getTouchVelocity() {
+        return mVelocity.getVelocity();
+    }
+
     private boolean isInScrollingContainer() {
         return SeekBarCompat.isInScrollingContainer(getParent());
     }
 
+    /**
+     * Binary search over the thumb positions (sorted along the track) for the one closest to a touch.
+     * Among stacked thumbs it picks the one that can move towards the touch.
+     */
+    private Thumb findClosestThumb(float touch) {
+        final Thumb[] thumbs = mThumbs;
+        final int offset = Math.round((touch - getTrackOrigin()) * getTrackDirection());
+        int low = 0;
+        int high = thumbs.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (thumbs[mid].position < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == 0) {
+            return thumbs[0];
+        } else if (low == thumbs.length) {
+            return thumbs[low - 1];
+        }
+        Thumb before = thumbs[low - 1];
+        Thumb after = thumbs[low];
+        //Ties go to the upper one
+        return offset - before.position < after.position - offset ? before : after;
+    }
+
     private boolean startDragging(MotionEvent ev, boolean ignoreTrackIfInScrollContainer) {
         final Rect bounds = mTempRect;
 
         if (mRange) {
-            // Figure out which thumb is closer
-            mThumbs[0].drawable.copyBounds(bounds);
-            int distance0;
-            if (mVertical) {
-                distance0 = Math.abs(bounds.centerY() - (int)ev.getY());
-            } else {
-                distance0 = Math.abs(bounds.centerX() - (int)ev.getX());
-            }
-            mThumbs[1].drawable.copyBounds(bounds);
-            int distance1;
-            if (mVertical) {
-                distance1 = Math.abs(bounds.centerY() - (int)ev.getY());
-            } else {
-                distance1 = Math.abs(bounds.centerX() - (int)ev.getX());
-            }
-            mActiveThumb = mThumbs[(distance0 < distance1) ? 0 : 1];
+            mActiveThumb = findClosestThumb(mVertical ? ev.getY() : ev.getX());
         }
 
         mActiveThumb.drawable.copyBounds(bounds);
@@ -949,6 +2498,8 @@ public class DiscreteSeekBar extends View {
     }
 
     private void stopDragging() {
+        //The last value must arrive before the tracking ends
+        flushPendingProgress();
         if (mPublicChangeListener != null) {
             mPublicChangeListener.onStopTrackingTouch(this);
         }
@@ -963,18 +2514,18 @@ public class DiscreteSeekBar extends View {
         //TODO: Should we reverse the keys for RTL? The framework's SeekBar does NOT....
         boolean handled = false;
         if (isEnabled()) {
-            int progress = getAnimatedProgress();
+            long progress = getAnimatedProgress();
             switch (keyCode) {
                 // TODO mVertical
                 case KeyEvent.KEYCODE_DPAD_LEFT:
                     handled = true;
                     if (progress <= mMin) break;
-                    animateSetProgress(progress - mKeyProgressIncrement);
+                    animateSetProgress(mValueScale.step(progress, -1, mKeyProgressIncrement, mMin, mMax));
                     break;
                 case KeyEvent.KEYCODE_DPAD_RIGHT:
                     handled = true;
                     if (progress >= mMax) break;
-                    animateSetProgress(progress + mKeyProgressIncrement);
+                    animateSetProgress(mValueScale.step(progress, 1, mKeyProgressIncrement, mMin, mMax));
                     break;
             }
         }
@@ -982,7 +2533,7 @@ public class DiscreteSeekBar extends View {
         return handled || super.onKeyDown(keyCode, event);
     }
 
-    private int getAnimatedProgress() {
+    private long getAnimatedProgress() {
         return isAnimationRunning() ? getAnimationTarget() : mActiveThumb.value;
     }
 
@@ -991,51 +2542,149 @@ public class DiscreteSeekBar extends View {
         return mPositionAnimator != null && mPositionAnimator.isRunning();
     }
 
-    void animateSetProgress(int progress) {
-        final float curProgress = isAnimationRunning() ? getAnimationPosition() : getProgress();
+    void animateSetProgress(long progress) {
+        animateSetProgress(progress, PROGRESS_ANIMATION_DURATION, null);
+    }
+
+    private void animateSetProgress(long progress, int duration, Interpolator interpolator) {
+        final long curProgress = isAnimationRunning() ? getAnimationPosition() : mActiveThumb.value;
 
-        if (progress < mMin) {
-            progress = mMin;
-        } else if (progress > mMax) {
-            progress = mMax;
-        }
+        //Only as far as the range constraints allow
+        progress = TrackMath.clamp(progress, getLowerLimit(mActiveThumb), getUpperLimit(mActiveThumb));
         //setProgressValueOnly(progress);
 
         if (mPositionAnimator != null) {
             mPositionAnimator.cancel();
         }
 
+        mAnimationStart = curProgress;
+        mAnimationValue = curProgress;
         mAnimationTarget = progress;
-        mPositionAnimator = AnimatorCompat.create(curProgress,
-                progress, new AnimatorCompat.AnimationFrameUpdateListener() {
+        //Animate the fraction: a float can't hold every value of a long range
+        mPositionAnimator = AnimatorCompat.create(mFrameScheduler, 0f,
+                1f, new AnimatorCompat.AnimationFrameUpdateListener() {
                     @Override
                     public void onAnimationFrame(float currentValue) {
-                        setAnimationPosition(currentValue);
+                        updateProgressFromAnimation(currentValue);
                     }
                 });
-        mPositionAnimator.setDuration(PROGRESS_ANIMATION_DURATION);
+        mPositionAnimator.setDuration(duration);
+        if (interpolator != null) {
+            mPositionAnimator.setInterpolator(interpolator);
+        }
         mPositionAnimator.start();
     }
 
-    private int getAnimationTarget() {
-        return mAnimationTarget;
+    /**
+     * Enables carrying the thumb with the release velocity after a drag.
+     * <p>
+     * The thumb decelerates and stops exactly at a discrete value, that value is known
+     * (and reported to the {@link DiscreteSeekBar.OnFlingListener}) right when the finger is lifted.
+     * </p>
+     *
+     * @param enabled true to enable flinging. By default it's disabled.
+     */
+    public void setFlingEnabled(boolean enabled) {
+        mFlingEnabled = enabled;
+    }
+
+    /**
+     * How fast a fling decelerates. Bigger values mean shorter flings.
+     *
+     * @param friction the decay rate in 1/s, the default is {@value FlingMath#DEFAULT_FRICTION}
+     */
+    public void setFlingFriction(float friction) {
+        if (friction <= 0) {
+            throw new IllegalArgumentException("The friction must be positive");
+        }
+        mFlingFriction = friction;
+    }
+
+    public void setOnFlingListener(@Nullable OnFlingListener listener) {
+        mFlingListener = listener;
+    }
+
+    private void fling(float velocity) {
+        final Thumb thumb = mActiveThumb;
+        int available = getAvailableTrackSize(thumb);
+        if (Math.abs(velocity) < mMinimumFlingVelocity || available <= 0 || mMax == mMin) {
+            return;
+        }
+        //Project along the track, the scale may not be linear
+        float distance = FlingMath.projectDistance(velocity, mFlingFriction);
+        if (isRtl()) {
+            distance = -distance;
+        }
+        int position = getThumbPos(thumb);
+        int targetPosition = Math.round(Math.max(0, Math.min(available, position + distance)));
+        //In range mode it may be stopped by its neighbours
+        long min = getLowerLimit(thumb);
+        long max = getUpperLimit(thumb);
+        long target = TrackMath.clamp(mValueScale.positionToValue(targetPosition, available, mMin, mMax), min, max);
+        if (target == thumb.value) {
+            return;
+        }
+        //Recompute the duration for the snapped distance so it lands smoothly
+        distance = mValueScale.valueToPosition(target, mMin, mMax, available) - position;
+        mFlingDuration = FlingMath.getDuration(distance, mFlingFriction);
+        if (mFlingListener != null) {
+            mFlingListener.onFlingStarted(this, TrackMath.toInt(target));
+        }
+        animateSetProgress(target, Math.max(1, mFlingDuration), mFlingInterpolator);
+    }
+
+    /**
+     * The lowest value a thumb can be moved to, given the range constraints
+     */
+    private long getLowerLimit(Thumb thumb) {
+        if (!mRange) {
+            return mMin;
+        }
+        return mRangeConstraints.getLowerLimit(getThumbValues(), thumb.index, mMin, mMax);
     }
 
-    void setAnimationPosition(float position) {
-        mAnimationPosition = position;
-        float currentScale = (position - mMin) / (float) (mMax - mMin);
-        updateProgressFromAnimation(currentScale);
+    /**
+     * The highest value a thumb can be moved to, given the range constraints
+     */
+    private long getUpperLimit(Thumb thumb) {
+        if (!mRange) {
+            return mMax;
+        }
+        return mRangeConstraints.getUpperLimit(getThumbValues(), thumb.index, mMin, mMax);
+    }
+
+    /**
+     * The current values, copied into their own scratch array
+     */
+    private long[] getThumbValues() {
+        final long[] values = mLimitValues;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = mThumbs[i].value;
+        }
+        return values;
     }
 
-    float getAnimationPosition() {
-        return mAnimationPosition;
+    private final Interpolator mFlingInterpolator = new Interpolator() {
+        @Override
+        public float getInterpolation(float input) {
+            return FlingMath.getInterpolation(input, mFlingFriction, mFlingDuration);
+        }
+    };
+
+    private long getAnimationTarget() {
+        return mAnimationTarget;
+    }
+
+    long getAnimationPosition() {
+        return mAnimationValue;
     }
 
 
     private void updateDragging(MotionEvent ev) {
         setHotspot(ev.getX(), ev.getY());
 
-        float scale;
+        int position;
+        int available;
         if (mVertical) {
             int y = (int) ev.getY();
             Rect oldBounds = mActiveThumb.drawable.getBounds();
@@ -1044,14 +2693,8 @@ public class DiscreteSeekBar extends View {
             int newY = y - mDragOffset + halfThumb;
             int top = getPaddingTop() + halfThumb + addedThumb;
             int bottom = getHeight() - (getPaddingBottom() + halfThumb + addedThumb);
-            if (newY < top) {
-                newY = top;
-            } else if (newY > bottom) {
-                newY = bottom;
-            }
-
-            int available = bottom - top;
-            scale = (float) (newY - top) / (float) available;
+            position = TrackMath.clamp(newY, top, bottom) - top;
+            available = bottom - top;
         } else {
             int x = (int) ev.getX();
             Rect oldBounds = mActiveThumb.drawable.getBounds();
@@ -1060,80 +2703,53 @@ public class DiscreteSeekBar extends View {
             int newX = x - mDragOffset + halfThumb;
             int left = getPaddingLeft() + halfThumb + addedThumb;
             int right = getWidth() - (getPaddingRight() + halfThumb + addedThumb);
-            if (newX < left) {
-                newX = left;
-            } else if (newX > right) {
-                newX = right;
-            }
-
-            int available = right - left;
-            scale = (float) (newX - left) / (float) available;
+            position = TrackMath.clamp(newX, left, right) - left;
+            available = right - left;
         }
         if (isRtl()) {
-            scale = 1f - scale;
+            position = available - position;
         }
-        int progress = Math.round((scale * (mMax - mMin)) + mMin);
+        long progress = mValueScale.positionToValue(position, available, mMin, mMax);
 
         setValue(mActiveThumb, progress, true);
     }
 
-    private void updateProgressFromAnimation(float scale) {
-        Rect bounds = mActiveThumb.drawable.getBounds();
-
-        int available;
-        if (mVertical) {
-            int halfThumb = bounds.height() / 2;
-            int addedThumb = mAddedTouchBounds;
-            int top = getPaddingTop() + halfThumb + addedThumb;
-            int bottom = getHeight() - (getPaddingBottom() + halfThumb + addedThumb);
-            available = bottom - top;
-        } else {
-            int halfThumb = bounds.width() / 2;
-            int addedThumb = mAddedTouchBounds;
-            int left = getPaddingLeft() + halfThumb + addedThumb;
-            int right = getWidth() - (getPaddingRight() + halfThumb + addedThumb);
-            available = right - left;
-        }
-        int progress = Math.round((scale * (mMax - mMin)) + mMin);
+    private void updateProgressFromAnimation(float fraction) {
+        int available = getAvailableTrackSize(mActiveThumb);
+        long progress = mValueScale.interpolate(mAnimationStart, mAnimationTarget, fraction, mMin, mMax);
+        mAnimationValue = progress;
         //we don't want to just call setProgress here to avoid the animation being cancelled,
         //and this position is not bound to a real progress value but interpolated
-        if (progress != getProgress()) {
-            mActiveThumb.value = progress;
-            notifyProgress(true);
-            updateProgressMessage(progress);
+        if (progress != mActiveThumb.value) {
+            //It may push (or swap with) the other thumbs on its way
+            resolveValue(mActiveThumb, progress, true);
+        }
+        if (mActiveThumb.value != progress) {
+            //Stopped by the range constraints
+            updateThumbPosFromCurrentProgress(mActiveThumb, mActiveThumb.value);
+            return;
         }
-        final int thumbPos = (int) (scale * available + 0.5f);
+        //The thumb moves smoothly between the pixels of both ends, even for small ranges
+        int startPos = mValueScale.valueToPosition(mAnimationStart, mMin, mMax, available);
+        int endPos = mValueScale.valueToPosition(mAnimationTarget, mMin, mMax, available);
+        final int thumbPos = Math.round(startPos + (endPos - startPos) * fraction);
         updateThumbPos(mActiveThumb, thumbPos);
     }
 
-    private void updateThumbPosFromCurrentProgress(Thumb thumb, int value) {
-        int available;
-        if (mVertical) {
-            int thumbHeight = thumb.drawable.getIntrinsicHeight();
-            int addedThumb = mAddedTouchBounds;
-            int halfThumb = thumbHeight / 2;
-
-            //This doesn't matter if RTL, as we just need the "avaiable" area
-            int top = getPaddingTop() + halfThumb + addedThumb;
-            int bottom = getHeight() - (getPaddingBottom() + halfThumb + addedThumb);
-            available = bottom - top;
-        } else {
-            int thumbWidth = thumb.drawable.getIntrinsicWidth();
-            int addedThumb = mAddedTouchBounds;
-            int halfThumb = thumbWidth / 2;
-
-            //This doesn't matter if RTL, as we just need the "avaiable" area
-            int left = getPaddingLeft() + halfThumb + addedThumb;
-            int right = getWidth() - (getPaddingRight() + halfThumb + addedThumb);
-            available = right - left;
-        }
-
-        float scaleDraw = (value - mMin) / (float) (mMax - mMin);
-        int thumbPos = (int) (scaleDraw * available + 0.5f);
+    private void updateThumbPosFromCurrentProgress(Thumb thumb, long value) {
+        int available = getAvailableTrackSize(thumb);
+        int thumbPos = mValueScale.valueToPosition(value, mMin, mMax, available);
         updateThumbPos(thumb, thumbPos);
     }
 
     private int getThumbPos(Thumb thumb) {
+        return mValueScale.valueToPosition(thumb.value, mMin, mMax, getAvailableTrackSize(thumb));
+    }
+
+    /**
+     * The length (in pixels) the thumb center can travel along the track
+     */
+    private int getAvailableTrackSize(Thumb thumb) {
         int available;
         if (mVertical) {
             int thumbHeight = thumb.drawable.getIntrinsicHeight();
@@ -1154,92 +2770,97 @@ public class DiscreteSeekBar extends View {
             int right = getWidth() - (getPaddingRight() + halfThumb + addedThumb);
             available = right - left;
         }
-
-        float scaleDraw = (thumb.value - mMin) / (float) (mMax - mMin);
-        return (int) (scaleDraw * available + 0.5f);
+        return available;
     }
 
     private void updateThumbPos(Thumb thumb, int pos) {
+        thumb.position = pos;
         Rect finalBounds = mTempRect;
+        if (!isLollipopOrGreater) {
+            //The fake ripple is drawn by us, so its old area must be cleared
+            mDirtyRegions.add(mRipple.getBounds());
+        }
         if (mVertical) {
             int thumbHeight = thumb.drawable.getIntrinsicHeight();
-            int halfThumb = thumbHeight / 2;
-            int start;
             if (isRtl()) {
-                start = getHeight() - getPaddingBottom() - mAddedTouchBounds;
-                pos = start - pos - thumbHeight;
+                pos = getHeight() - getPaddingBottom() - mAddedTouchBounds - pos - thumbHeight;
             } else {
-                start = getPaddingTop() + mAddedTouchBounds;
-                pos = start + pos;
+                pos = getPaddingTop() + mAddedTouchBounds + pos;
             }
             thumb.drawable.copyBounds(mInvalidateRect);
             thumb.drawable.setBounds(mInvalidateRect.left, pos, mInvalidateRect.right, pos + thumbHeight);
-            if (mRange) {
-                if (isRtl()) {
-                    // TODO
-                    mScrubber.getBounds().bottom = start - halfThumb;
-                    mScrubber.getBounds().top = pos + halfThumb;
-                } else {
-                    mScrubber.getBounds().top = start + halfThumb + getThumbPos(mThumbs[0]);
-                    mScrubber.getBounds().bottom = start + halfThumb + getThumbPos(mThumbs[1]);
-                }
-            } else {
-                if (isRtl()) {
-                    mScrubber.getBounds().bottom = start - halfThumb;
-                    mScrubber.getBounds().top = pos + halfThumb;
-                } else {
-                    mScrubber.getBounds().top = start + halfThumb;
-                    mScrubber.getBounds().bottom = pos + halfThumb;
-                }
-            }
             finalBounds = mTempRect;
             thumb.drawable.copyBounds(finalBounds);
-            if (!isInEditMode()) {
+            if (mIndicator != null && thumb == mActiveThumb) {
                 mIndicator.move(finalBounds.centerY());
             }
         } else {
             int thumbWidth = thumb.drawable.getIntrinsicWidth();
-            int halfThumb = thumbWidth / 2;
-            int start;
             if (isRtl()) {
-                start = getWidth() - getPaddingRight() - mAddedTouchBounds;
-                pos = start - pos - thumbWidth;
+                pos = getWidth() - getPaddingRight() - mAddedTouchBounds - pos - thumbWidth;
             } else {
-                start = getPaddingLeft() + mAddedTouchBounds;
-                pos = start + pos;
+                pos = getPaddingLeft() + mAddedTouchBounds + pos;
             }
             thumb.drawable.copyBounds(mInvalidateRect);
             thumb.drawable.setBounds(pos, mInvalidateRect.top, pos + thumbWidth, mInvalidateRect.bottom);
-            if (mRange) {
-                if (isRtl()) {
-                    // TODO
-                    mScrubber.getBounds().right = start - halfThumb;
-                    mScrubber.getBounds().left = pos + halfThumb;
-                } else {
-                    mScrubber.getBounds().left = start + halfThumb + getThumbPos(mThumbs[0]);
-                    mScrubber.getBounds().right = start + halfThumb + getThumbPos(mThumbs[1]);
-                }
-            } else {
-                if (isRtl()) {
-                    mScrubber.getBounds().right = start - halfThumb;
-                    mScrubber.getBounds().left = pos + halfThumb;
-                } else {
-                    mScrubber.getBounds().left = start + halfThumb;
-                    mScrubber.getBounds().right = pos + halfThumb;
-                }
-            }
             finalBounds = mTempRect;
             thumb.drawable.copyBounds(finalBounds);
-            if (!isInEditMode()) {
+            if (mIndicator != null && thumb == mActiveThumb) {
                 mIndicator.move(finalBounds.centerX());
             }
         }
 
         mInvalidateRect.inset(-mAddedTouchBounds, -mAddedTouchBounds);
         finalBounds.inset(-mAddedTouchBounds, -mAddedTouchBounds);
-        mInvalidateRect.union(finalBounds);
         SeekBarCompat.setHotspotBounds(mRipple, finalBounds.left, finalBounds.top, finalBounds.right, finalBounds.bottom);
-        invalidate(mInvalidateRect);
+        //Old and new thumb, the part of the scrubber that changed and the ripple
+        mDirtyRegions.add(mInvalidateRect);
+        mDirtyRegions.add(finalBounds);
+        updateScrubberSegment(thumb);
+        mDirtyRegions.flush();
+    }
+
+    /**
+     * Updates the scrubber segment that ends at a thumb.
+     * <p>
+     * Thumbs are paired as (0, 1), (2, 3)... With an odd count (like a single thumb)
+     * the first segment goes from the track start to thumb 0.
+     * </p>
+     */
+    private void updateScrubberSegment(Thumb thumb) {
+        final int shift = mThumbs.length % 2;
+        final int segment = (thumb.index + shift) / 2;
+        final int first = segment * 2 - shift;
+        final int from = first < 0 ? 0 : mThumbs[first].position;
+        final int to = mThumbs[first + 1].position;
+        final Rect before = mScrubberRect;
+        final Rect after = mScrubberNewRect;
+        mScrubber.getSegmentBounds(segment, before);
+        mScrubber.setSegment(segment, from, to);
+        mScrubber.getSegmentBounds(segment, after);
+        if (mTickMarks != null) {
+            mTickMarks.setActiveSpans(mScrubber.getSegmentOffsets(), mScrubber.getSegmentCount());
+            //Tick marks can be thicker than the scrubber, they change color along the same span
+            int outset = mTickMarks.getSize() / 2 + 1;
+            if (mVertical) {
+                before.inset(-outset, 0);
+                after.inset(-outset, 0);
+            } else {
+                before.inset(0, -outset);
+                after.inset(0, -outset);
+            }
+        }
+        mDirtyRegions.addSpanDelta(before, after, mVertical);
+    }
+
+    /**
+     * Paints the area invalidated by the last thumb movement over the View.
+     * <p>
+     * Only meant for debugging: it helps to check that dragging redraws as little as possible.
+     * </p>
+     */
+    public void setDebugDirtyRegionsEnabled(boolean enabled) {
+        mDirtyRegions.setDebugEnabled(enabled);
     }
 
 
@@ -1249,7 +2870,13 @@ public class DiscreteSeekBar extends View {
 
     @Override
     protected boolean verifyDrawable(Drawable who) {
-        return who == mThumbs[0].drawable || who == mThumbs[1].drawable || who == mTrack || who == mScrubber || who == mRipple || super.verifyDrawable(who);
+        for (Thumb thumb : mThumbs) {
+            if (who == thumb.drawable) {
+                return true;
+            }
+        }
+        boolean tickMark = mTickMarks != null && (who == mTickMarks.getInactiveDrawable() || who == mTickMarks.getActiveDrawable());
+        return tickMark || who == mTrack || who == mScrubber || who == mRipple || super.verifyDrawable(who);
     }
 
     private void attemptClaimDrag() {
@@ -1269,7 +2896,7 @@ public class DiscreteSeekBar extends View {
     private void showFloater() {
         if (!isInEditMode()) {
             mActiveThumb.drawable.animateToPressed();
-            mIndicator.showIndicator(this, mActiveThumb.drawable.getBounds());
+            obtainIndicator().showIndicator(this, mActiveThumb.drawable.getBounds());
             notifyBubble(true);
         }
     }
@@ -1277,7 +2904,9 @@ public class DiscreteSeekBar extends View {
     private void hideFloater() {
         removeCallbacks(mShowIndicatorRunnable);
         if (!isInEditMode()) {
-            mIndicator.dismiss();
+            if (mIndicator != null) {
+                mIndicator.dismiss();
+            }
             notifyBubble(false);
         }
     }
@@ -1286,6 +2915,10 @@ public class DiscreteSeekBar extends View {
         @Override
         public void onClosingComplete() {
             mActiveThumb.drawable.animateToNormal();
+            //Let other DiscreteSeekBars use it
+            if (mIndicatorPool != null) {
+                releaseIndicator();
+            }
         }
 
         @Override
@@ -1293,12 +2926,41 @@ public class DiscreteSeekBar extends View {
         }
     };
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (mIndicatorPrewarm) {
+            schedulePrewarm();
+        }
+        if (mModel != null) {
+            mModel.addObserver(mModelObserver);
+            //It may have changed while detached
+            applyModel();
+        }
+        subscribeValueSource();
+    }
+
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
         removeCallbacks(mShowIndicatorRunnable);
-        if (!isInEditMode()) {
+        if (mIndicatorPrewarm) {
+            Looper.myQueue().removeIdleHandler(mPrewarmHandler);
+        }
+        mDirtyRegions.cancel();
+        flushPendingProgress();
+        unsubscribeValueSource();
+        if (mModel != null) {
+            mModel.removeObserver(mModelObserver);
+        }
+        if (mStaticLayer != null) {
+            mStaticLayer.release();
+        }
+        if (mIndicator != null) {
             mIndicator.dismissComplete();
+            if (mIndicatorPool != null) {
+                releaseIndicator();
+            }
         }
     }
 
@@ -1314,7 +2976,10 @@ public class DiscreteSeekBar extends View {
     protected Parcelable onSaveInstanceState() {
         Parcelable superState = super.onSaveInstanceState();
         CustomState state = new CustomState(superState);
-        state.progress = getProgress();
+        state.values = new long[mThumbs.length];
+        for (int i = 0; i < mThumbs.length; i++) {
+            state.values[i] = mThumbs[i].value;
+        }
         state.max = mMax;
         state.min = mMin;
         return state;
@@ -1328,22 +2993,28 @@ public class DiscreteSeekBar extends View {
         }
 
         CustomState customState = (CustomState) state;
-        setMin(customState.min);
-        setMax(customState.max);
-        setProgress(customState.progress, false);
+        Editor editor = edit()
+                .setMin(customState.min)
+                .setMax(customState.max);
+        //The thumb count could have changed (like a different layout for this configuration)
+        int count = Math.min(customState.values.length, mThumbs.length);
+        for (int i = 0; i < count; i++) {
+            editor.setThumbValue(i, customState.values[i]);
+        }
+        editor.commit();
         super.onRestoreInstanceState(customState.getSuperState());
     }
 
     static class CustomState extends BaseSavedState {
-        private int progress;
-        private int max;
-        private int min;
+        private long[] values;
+        private long max;
+        private long min;
 
         public CustomState(Parcel source) {
             super(source);
-            progress = source.readInt();
-            max = source.readInt();
-            min = source.readInt();
+            values = source.createLongArray();
+            max = source.readLong();
+            min = source.readLong();
         }
 
         public CustomState(Parcelable superState) {
@@ -1353,9 +3024,9 @@ public class DiscreteSeekBar extends View {
         @Override
         public void writeToParcel(Parcel outcoming, int flags) {
             super.writeToParcel(outcoming, flags);
-            outcoming.writeInt(progress);
-            outcoming.writeInt(max);
-            outcoming.writeInt(min);
+            outcoming.writeLongArray(values);
+            outcoming.writeLong(max);
+            outcoming.writeLong(min);
         }
 
         public static final Creator<CustomState> CREATOR =
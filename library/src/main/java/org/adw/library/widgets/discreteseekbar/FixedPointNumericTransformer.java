@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * A {@link DiscreteSeekBar.NumericTransformer} that shows the values as fixed point decimals.
+ * <p>
+ * With 2 decimals the value 12345 is shown as "123.45" (with the decimal separator of the default Locale).
+ * This gives exact decimal steps: a 0.00 to 10.00 range in steps of 0.01 is just a 0 to 1000 range.
+ * </p>
+ */
+public class FixedPointNumericTransformer extends DiscreteSeekBar.NumericTransformer {
+    //Sign, 19 digits, separator and a leading 0 when all the digits are decimals
+    private static final int MAX_LENGTH = 22;
+    private final int mDecimals;
+    private final char[] mChars = new char[MAX_LENGTH];
+    private Locale mLocale;
+    private char mDecimalSeparator;
+
+    /**
+     * @param decimals number of decimal digits, from 0 to 18
+     */
+    public FixedPointNumericTransformer(int decimals) {
+        if (decimals < 0 || decimals > 18) {
+            throw new IllegalArgumentException("decimals must be between 0 and 18");
+        }
+        mDecimals = decimals;
+    }
+
+    public int getDecimals() {
+        return mDecimals;
+    }
+
+    @Override
+    public int transform(int value) {
+        return value;
+    }
+
+    @Override
+    public String transformToString(int value) {
+        return transformToString((long) value);
+    }
+
+    @Override
+    public synchronized String transformToString(long value) {
+        final boolean negative = value < 0;
+        final char[] chars = mChars;
+        //Digits are generated from right to left.
+        //We work with negative remainders so Long.MIN_VALUE doesn't overflow
+        int start = chars.length;
+        long remaining = value;
+        if (mDecimals > 0) {
+            for (int i = 0; i < mDecimals; i++) {
+                int digit = (int) (remaining % 10);
+                chars[--start] = (char) ('0' + (negative ? -digit : digit));
+                remaining /= 10;
+            }
+            chars[--start] = getDecimalSeparator();
+        }
+        do {
+            int digit = (int) (remaining % 10);
+            chars[--start] = (char) ('0' + (negative ? -digit : digit));
+            remaining /= 10;
+        } while (remaining != 0);
+        if (negative) {
+            chars[--start] = '-';
+        }
+        return new String(chars, start, chars.length - start);
+    }
+
+    /**
+     * The separator is only looked up again when the default Locale changes
+     */
+    private char getDecimalSeparator() {
+        Locale locale = Locale.getDefault();
+        if (!locale.equals(mLocale)) {
+            mDecimalSeparator = DecimalFormatSymbols.getInstance(locale).getDecimalSeparator();
+            mLocale = locale;
+        }
+        return mDecimalSeparator;
+    }
+
+    @Override
+    public boolean useStringTransform() {
+        return true;
+    }
+}
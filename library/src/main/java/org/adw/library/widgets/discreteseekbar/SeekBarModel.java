@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the values of a {@link DiscreteSeekBar} so they can be written from any thread.
+ * <p>
+ * The lower and upper values are published together as a single immutable pair, so readers always see a
+ * consistent pair and writers never block. Attach it with {@link DiscreteSeekBar#setModel(SeekBarModel)}:
+ * the DiscreteSeekBar merges every write made since its last frame and applies only the latest values,
+ * clamped to its range, on the UI thread.
+ * </p>
+ * <pre>
+ * final SeekBarModel model = new SeekBarModel(0, 0);
+ * seekBar.setModel(model);
+ * //From a sensor thread, hundreds of times per second
+ * model.setLowerValue(reading);
+ * </pre>
+ * <p>
+ * Every change of the DiscreteSeekBar values (made by the user, by code, or when they're clamped to its range)
+ * is written back into the model.
+ * </p>
+ */
+public class SeekBarModel {
+
+    /**
+     * Notified after every change, on the thread that made it
+     */
+    public interface Observer {
+        public void onModelChanged(SeekBarModel model);
+    }
+
+    /**
+     * An immutable lower/upper pair
+     */
+    static final class Values {
+        final long lower;
+        final long upper;
+
+        Values(long lower, long upper) {
+            this.lower = lower;
+            this.upper = upper;
+        }
+    }
+
+    private final AtomicReference<Values> mValues;
+    private final CopyOnWriteArrayList<Observer> mObservers = new CopyOnWriteArrayList<Observer>();
+
+    /**
+     * @param lower the initial progress, or lower value in range mode
+     * @param upper the initial upper value, only used in range mode
+     */
+    public SeekBarModel(long lower, long upper) {
+        mValues = new AtomicReference<Values>(new Values(lower, upper));
+    }
+
+    public long getLowerValue() {
+        return mValues.get().lower;
+    }
+
+    public long getUpperValue() {
+        return mValues.get().upper;
+    }
+
+    public void setLowerValue(long lower) {
+        Values current;
+        do {
+            current = mValues.get();
+            if (current.lower == lower) {
+                return;
+            }
+        } while (!mValues.compareAndSet(current, new Values(lower, current.upper)));
+        notifyObservers();
+    }
+
+    public void setUpperValue(long upper) {
+        Values current;
+        do {
+            current = mValues.get();
+            if (current.upper == upper) {
+                return;
+            }
+        } while (!mValues.compareAndSet(current, new Values(current.lower, upper)));
+        notifyObservers();
+    }
+
+    /**
+     * Sets both values at once, observers will never see just one of them changed
+     */
+    public void setValues(long lower, long upper) {
+        Values current = mValues.getAndSet(new Values(lower, upper));
+        if (current.lower != lower || current.upper != upper) {
+            notifyObservers();
+        }
+    }
+
+    /**
+     * Sets both values only if nobody wrote new ones since expected was read
+     *
+     * @return false if there was a newer write, which is kept
+     */
+    boolean compareAndSetValues(Values expected, long lower, long upper) {
+        if (expected.lower == lower && expected.upper == upper) {
+            return mValues.get() == expected;
+        }
+        if (!mValues.compareAndSet(expected, new Values(lower, upper))) {
+            return false;
+        }
+        notifyObservers();
+        return true;
+    }
+
+    /**
+     * Both values, read with a single call
+     */
+    Values getValues() {
+        return mValues.get();
+    }
+
+    public void addObserver(@NonNull Observer observer) {
+        mObservers.addIfAbsent(observer);
+    }
+
+    public void removeObserver(@NonNull Observer observer) {
+        mObservers.remove(observer);
+    }
+
+    private void notifyObservers() {
+        for (Observer observer : mObservers) {
+            observer.onModelChanged(this);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A {@link ValueSource} fed by calling {@link #publish(long, long)} from any thread.
+ * <p>
+ * Useful for callback based producers (sensors, players, sockets...) that don't have a stream type of their own.
+ * </p>
+ */
+public class ValuePublisher implements ValueSource {
+    private final CopyOnWriteArrayList<Sink> mSinks = new CopyOnWriteArrayList<Sink>();
+
+    @Override
+    public Subscription subscribe(final Sink sink) {
+        mSinks.add(sink);
+        return new Subscription() {
+            @Override
+            public void cancel() {
+                mSinks.remove(sink);
+            }
+        };
+    }
+
+    /**
+     * Same as calling {@link #publish(long, long)} with no upper value
+     */
+    public void publish(long value) {
+        publish(value, 0);
+    }
+
+    public void publish(long lower, long upper) {
+        for (Sink sink : mSinks) {
+            sink.onValue(lower, upper);
+        }
+    }
+}
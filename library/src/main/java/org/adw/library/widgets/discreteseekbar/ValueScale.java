@@ -0,0 +1,492 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar;
+
+import org.adw.library.widgets.discreteseekbar.internal.math.TrackMath;
+
+import java.util.Arrays;
+
+/**
+ * Maps the values of a {@link DiscreteSeekBar} to positions along its track and back.
+ * <p>
+ * The default one is {@link #linear()}. Use {@link #logarithmic()}, {@link #exponential(double)},
+ * {@link #piecewise(long[], float[])} or {@link #values(long...)} for non linear tracks,
+ * or extend it and implement {@link #valueToFraction(long, long, long)} and {@link #fractionToValue(double, long, long)}.
+ * </p>
+ * <p>
+ * Every method is called on the UI thread while dragging or animating, so implementations
+ * should be O(1) or O(log n) and must not allocate.
+ * </p>
+ *
+ * @see DiscreteSeekBar#setValueScale(ValueScale)
+ */
+public abstract class ValueScale {
+    //Fraction of the track moved by every keyboard step on the non linear scales
+    private static final double KEY_STEP_FRACTION = 1d / 20;
+
+    private static final ValueScale LINEAR = new LinearScale();
+    private static final ValueScale LOGARITHMIC = new LogarithmicScale();
+
+    /**
+     * Evenly spaced values (the default)
+     */
+    public static ValueScale linear() {
+        return LINEAR;
+    }
+
+    /**
+     * Each step along the track multiplies the distance to min by the same factor,
+     * giving the low values more room. Good for frequencies, zoom levels, file sizes...
+     */
+    public static ValueScale logarithmic() {
+        return LOGARITHMIC;
+    }
+
+    /**
+     * Values grow exponentially along the track.
+     *
+     * @param curvature how bent the curve is. Positive values give the low values more room,
+     *                  negative ones give it to the high values. Can't be 0 (use {@link #linear()})
+     */
+    public static ValueScale exponential(double curvature) {
+        return new ExponentialScale(curvature);
+    }
+
+    /**
+     * Linear segments between some breakpoints.
+     * <p>
+     * Values before the first breakpoint or after the last one stick to the track ends,
+     * so the min and max of the {@link DiscreteSeekBar} should be the first and last values.
+     * </p>
+     *
+     * @param values    the values of each breakpoint, in ascending order
+     * @param positions the position of each breakpoint as a fraction (0 to 1) of the track, in ascending order
+     */
+    public static ValueScale piecewise(long[] values, float[] positions) {
+        return new PiecewiseScale(values, positions);
+    }
+
+    /**
+     * Only allows the given values, evenly spaced along the track. Any other value snaps to the closest one.
+     * <p>
+     * The min and max of the {@link DiscreteSeekBar} should be the first and last values.
+     * </p>
+     *
+     * @param values the allowed values, in ascending order
+     */
+    public static ValueScale values(long... values) {
+        return new LookupScale(values.clone());
+    }
+
+    /**
+     * @see #values(long...)
+     */
+    public static ValueScale values(int... values) {
+        long[] longValues = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            longValues[i] = values[i];
+        }
+        return new LookupScale(longValues);
+    }
+
+    /**
+     * Computes where a value lies along the track
+     *
+     * @param value The value, already clamped to [min, max]
+     * @param min   The minimum value
+     * @param max   The maximum value
+     * @return the fraction of the track, from 0 to 1
+     */
+    public abstract double valueToFraction(long value, long min, long max);
+
+    /**
+     * Computes the value at a point of the track
+     *
+     * @param fraction The fraction of the track, from 0 to 1
+     * @param min      The minimum value
+     * @param max      The maximum value
+     * @return the value, between min and max
+     */
+    public abstract long fractionToValue(double fraction, long min, long max);
+
+    /**
+     * Computes the offset (in pixels) from the track start for a given value
+     */
+    public int valueToPosition(long value, long min, long max, int available) {
+        if (max <= min || available <= 0) {
+            return 0;
+        }
+        return (int) Math.round(valueToFraction(value, min, max) * available);
+    }
+
+    /**
+     * Computes the value for a given offset (in pixels) from the track start
+     *
+     * @param position  The offset in pixels, already clamped to [0, available]
+     * @param available The available track length in pixels
+     */
+    public long positionToValue(int position, int available, long min, long max) {
+        if (max <= min || available <= 0) {
+            return min;
+        }
+        return fractionToValue((double) position / available, min, max);
+    }
+
+    /**
+     * Returns the allowed value closest to the given one. Every value is allowed by default.
+     */
+    public long snap(long value, long min, long max) {
+        return value;
+    }
+
+    /**
+     * Computes the value reached by moving a number of keyboard steps from another one.
+     * By default each step moves a twentieth of the track, and at least one value.
+     *
+     * @param value     The starting value
+     * @param steps     How many steps, negative to move towards min
+     * @param increment The keyboard increment of the {@link DiscreteSeekBar}, in values
+     * @return the new value, between min and max
+     */
+    public long step(long value, int steps, long increment, long min, long max) {
+        double fraction = valueToFraction(value, min, max) + steps * KEY_STEP_FRACTION;
+        long result = fractionToValue(clampFraction(fraction), min, max);
+        if (result == value) {
+            //Too small to move a whole value. Never past the limits, so it can't overflow
+            if (steps < 0 && value > min) {
+                result = value - 1;
+            } else if (steps > 0 && value < max) {
+                result = value + 1;
+            }
+        }
+        return TrackMath.clamp(result, min, max);
+    }
+
+    /**
+     * Computes the value shown at some point of an animation from start to end.
+     * The thumb moves at a constant speed along the track, so by default this interpolates the track positions.
+     *
+     * @param fraction The fraction of the animation, from 0 to 1
+     * @return the value, exactly end for a fraction of 1
+     */
+    public long interpolate(long start, long end, float fraction, long min, long max) {
+        if (fraction >= 1f) {
+            return end;
+        }
+        double from = valueToFraction(start, min, max);
+        double to = valueToFraction(end, min, max);
+        long value = fractionToValue(clampFraction(from + (to - from) * fraction), min, max);
+        //Never go back nor overshoot because of the rounding
+        return start < end ? TrackMath.clamp(value, start, end) : TrackMath.clamp(value, end, start);
+    }
+
+    /**
+     * Computes the value of the tick mark that follows a value.
+     * By default tick marks are every {@code interval} values from min, plus one at max.
+     *
+     * @param value    The current value
+     * @param interval The values between tick marks, at least 1
+     * @return the next tick mark value, or max if there's none left
+     */
+    public long nextTick(long value, long interval, long min, long max) {
+        if (value < min) {
+            return min;
+        }
+        //Compared with the distance to max, so it can't overflow
+        long offset = (value - min) / interval * interval;
+        if (max - min - offset <= interval) {
+            return max;
+        }
+        return min + offset + interval;
+    }
+
+    private static double clampFraction(double fraction) {
+        return fraction < 0 ? 0 : (fraction > 1 ? 1 : fraction);
+    }
+
+    /**
+     * Converts a value in the range to a fraction, with the range as a double to avoid overflowing
+     */
+    private static double linearFraction(long value, long min, long max) {
+        return (double) (value - min) / ((double) max - min);
+    }
+
+    private static long fromDouble(double value, long min, long max) {
+        if (value <= min) {
+            return min;
+        } else if (value >= max) {
+            return max;
+        }
+        return TrackMath.clamp(Math.round(value), min, max);
+    }
+
+    /**
+     * Exact integer mapping, no double involved
+     */
+    private static class LinearScale extends ValueScale {
+        @Override
+        public double valueToFraction(long value, long min, long max) {
+            return max <= min ? 0 : linearFraction(value, min, max);
+        }
+
+        @Override
+        public long fractionToValue(double fraction, long min, long max) {
+            return max <= min ? min : fromDouble(min + fraction * ((double) max - min), min, max);
+        }
+
+        @Override
+        public int valueToPosition(long value, long min, long max, int available) {
+            return TrackMath.valueToPosition(value, min, max, available);
+        }
+
+        @Override
+        public long positionToValue(int position, int available, long min, long max) {
+            return TrackMath.positionToValue(position, available, min, max, false);
+        }
+
+        @Override
+        public long step(long value, int steps, long increment, long min, long max) {
+            //Never step past the limits, so it can't overflow
+            for (; steps > 0; steps--) {
+                value += Math.min(increment, max - value);
+            }
+            for (; steps < 0; steps++) {
+                value -= Math.min(increment, value - min);
+            }
+            return value;
+        }
+
+        @Override
+        public long interpolate(long start, long end, float fraction, long min, long max) {
+            return TrackMath.interpolate(start, end, fraction);
+        }
+    }
+
+    /**
+     * value = min + (range + 1)^fraction - 1, so it also works when min is 0 or negative
+     */
+    private static class LogarithmicScale extends ValueScale {
+        @Override
+        public double valueToFraction(long value, long min, long max) {
+            if (max <= min) {
+                return 0;
+            }
+            return Math.log1p((double) value - min) / Math.log1p((double) max - min);
+        }
+
+        @Override
+        public long fractionToValue(double fraction, long min, long max) {
+            if (max <= min || fraction <= 0) {
+                return min;
+            } else if (fraction >= 1) {
+                //The double round trip can land a bit short of wide ranges
+                return max;
+            }
+            return fromDouble(min + Math.expm1(fraction * Math.log1p((double) max - min)), min, max);
+        }
+    }
+
+    /**
+     * value = min + range * (e^(curvature * fraction) - 1) / (e^curvature - 1)
+     */
+    private static class ExponentialScale extends ValueScale {
+        private final double mCurvature;
+        private final double mScale;
+
+        ExponentialScale(double curvature) {
+            if (curvature == 0 || Double.isNaN(curvature) || Double.isInfinite(curvature)) {
+                throw new IllegalArgumentException("The curvature must be a finite non zero number");
+            }
+            mCurvature = curvature;
+            mScale = Math.expm1(curvature);
+        }
+
+        @Override
+        public double valueToFraction(long value, long min, long max) {
+            if (max <= min) {
+                return 0;
+            }
+            return Math.log1p(linearFraction(value, min, max) * mScale) / mCurvature;
+        }
+
+        @Override
+        public long fractionToValue(double fraction, long min, long max) {
+            if (max <= min || fraction <= 0) {
+                return min;
+            } else if (fraction >= 1) {
+                return max;
+            }
+            return fromDouble(min + Math.expm1(mCurvature * fraction) / mScale * ((double) max - min), min, max);
+        }
+    }
+
+    private static class PiecewiseScale extends ValueScale {
+        private final long[] mValues;
+        private final float[] mPositions;
+
+        PiecewiseScale(long[] values, float[] positions) {
+            if (values.length < 2 || values.length != positions.length) {
+                throw new IllegalArgumentException("Needs at least two breakpoints, with a position for each value");
+            }
+            for (int i = 1; i < values.length; i++) {
+                if (values[i] <= values[i - 1] || positions[i] < positions[i - 1]) {
+                    throw new IllegalArgumentException("Breakpoints must be in ascending order");
+                }
+            }
+            if (positions[0] < 0 || positions[positions.length - 1] > 1) {
+                throw new IllegalArgumentException("Positions must be between 0 and 1");
+            }
+            mValues = values.clone();
+            mPositions = positions.clone();
+        }
+
+        @Override
+        public double valueToFraction(long value, long min, long max) {
+            final long[] values = mValues;
+            final int last = values.length - 1;
+            if (value <= values[0]) {
+                return mPositions[0];
+            } else if (value >= values[last]) {
+                return mPositions[last];
+            }
+            int index = Arrays.binarySearch(values, value);
+            if (index >= 0) {
+                return mPositions[index];
+            }
+            //The segment that contains the value starts right before the insertion point
+            int start = -index - 2;
+            double segment = linearFraction(value, values[start], values[start + 1]);
+            return mPositions[start] + segment * (mPositions[start + 1] - mPositions[start]);
+        }
+
+        @Override
+        public long fractionToValue(double fraction, long min, long max) {
+            final float[] positions = mPositions;
+            final long[] values = mValues;
+            final int last = positions.length - 1;
+            if (fraction <= positions[0]) {
+                return values[0];
+            } else if (fraction >= positions[last]) {
+                return values[last];
+            }
+            int index = Arrays.binarySearch(positions, (float) fraction);
+            if (index >= 0) {
+                return values[index];
+            }
+            int start = -index - 2;
+            double segment = (fraction - positions[start]) / (positions[start + 1] - positions[start]);
+            return fromDouble(values[start] + segment * ((double) values[start + 1] - values[start]),
+                    values[start], values[start + 1]);
+        }
+    }
+
+    /**
+     * Works on the indexes of the allowed values, so the mapping is exact
+     */
+    private static class LookupScale extends ValueScale {
+        private final long[] mValues;
+
+        LookupScale(long[] values) {
+            if (values.length == 0) {
+                throw new IllegalArgumentException("Needs at least one value");
+            }
+            for (int i = 1; i < values.length; i++) {
+                if (values[i] <= values[i - 1]) {
+                    throw new IllegalArgumentException("Values must be in ascending order");
+                }
+            }
+            mValues = values;
+        }
+
+        /**
+         * Binary search for the closest allowed value, ties go to the bigger one
+         */
+        private int indexOf(long value) {
+            final long[] values = mValues;
+            int index = Arrays.binarySearch(values, value);
+            if (index >= 0) {
+                return index;
+            }
+            int next = -index - 1;
+            if (next == 0) {
+                return 0;
+            } else if (next == values.length) {
+                return values.length - 1;
+            }
+            //Compared as doubles, the difference of two longs can overflow
+            return (double) value - values[next - 1] < (double) values[next] - value ? next - 1 : next;
+        }
+
+        private int lastIndex() {
+            return mValues.length - 1;
+        }
+
+        @Override
+        public double valueToFraction(long value, long min, long max) {
+            int last = lastIndex();
+            return last == 0 ? 0 : (double) indexOf(value) / last;
+        }
+
+        @Override
+        public long fractionToValue(double fraction, long min, long max) {
+            return mValues[(int) Math.round(clampFraction(fraction) * lastIndex())];
+        }
+
+        @Override
+        public int valueToPosition(long value, long min, long max, int available) {
+            return TrackMath.valueToPosition(indexOf(value), 0, lastIndex(), available);
+        }
+
+        @Override
+        public long positionToValue(int position, int available, long min, long max) {
+            return mValues[(int) TrackMath.positionToValue(position, available, 0, lastIndex(), false)];
+        }
+
+        @Override
+        public long snap(long value, long min, long max) {
+            return mValues[indexOf(value)];
+        }
+
+        @Override
+        public long step(long value, int steps, long increment, long min, long max) {
+            int index = TrackMath.clamp(indexOf(value) + steps, 0, lastIndex());
+            return TrackMath.clamp(mValues[index], min, max);
+        }
+
+        @Override
+        public long interpolate(long start, long end, float fraction, long min, long max) {
+            if (fraction >= 1f) {
+                return end;
+            }
+            return mValues[(int) TrackMath.interpolate(indexOf(start), indexOf(end), fraction)];
+        }
+
+        /**
+         * Tick marks are every {@code interval} allowed values
+         */
+        @Override
+        public long nextTick(long value, long interval, long min, long max) {
+            int index = Arrays.binarySearch(mValues, value);
+            //First allowed value after the given one
+            int next = index >= 0 ? index + 1 : -index - 1;
+            //Round up to the interval
+            long tick = next % interval == 0 ? next : (next / interval + 1) * interval;
+            int last = lastIndex();
+            return TrackMath.clamp(mValues[tick >= last ? last : (int) tick], min, max);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar;
+
+/**
+ * A push source of values for a {@link DiscreteSeekBar}, like a stream of telemetry samples.
+ * <p>
+ * It's a plain java interface so any reactive library can be adapted in a few lines.
+ * For example, with RxJava:
+ * </p>
+ * <pre>
+ * ValueSource source = new ValueSource() {
+ *     public Subscription subscribe(final Sink sink) {
+ *         final Disposable disposable = levels.subscribe(level -&gt; sink.onValue(level, 0));
+ *         return new Subscription() {
+ *             public void cancel() {
+ *                 disposable.dispose();
+ *             }
+ *         };
+ *     }
+ * };
+ * seekBar.setValueSource(source);
+ * </pre>
+ * Or just use a {@link ValuePublisher}.
+ *
+ * @see DiscreteSeekBar#setValueSource(ValueSource)
+ */
+public interface ValueSource {
+
+    /**
+     * Starts delivering values to the sink until the returned subscription is cancelled
+     */
+    public Subscription subscribe(Sink sink);
+
+    /**
+     * Receives the values. It can be called from any thread, as often as needed:
+     * only the latest values are used, once per frame.
+     */
+    public interface Sink {
+        /**
+         * @param lower the progress, or the lower value in range mode
+         * @param upper the upper value, ignored if the DiscreteSeekBar is not in range mode
+         */
+        public void onValue(long lower, long upper);
+    }
+
+    public interface Subscription {
+        public void cancel();
+    }
+}
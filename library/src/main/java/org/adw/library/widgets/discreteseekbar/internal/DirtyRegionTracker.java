@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.view.View;
+
+/**
+ * Collects the areas changed by the moving parts of a View (thumbs, scrubber, ripple)
+ * and invalidates just one tight Rect (their union) when {@link #flush()} is called.
+ * <p>
+ * The invalidation is not deferred, so there's no added latency while dragging.
+ * Several flushes within the same frame are merged by the View hierarchy as usual.
+ * </p>
+ *
+ * @hide
+ */
+public class DirtyRegionTracker {
+    private static final int DEBUG_COLOR = 0x55ff0000;
+
+    private final View mView;
+    private final Rect mDirty = new Rect();
+    private final Rect mLastInvalidated = new Rect();
+    private Paint mDebugPaint;
+
+    public DirtyRegionTracker(View view) {
+        mView = view;
+    }
+
+    /**
+     * Marks the given area as dirty
+     */
+    public void add(Rect rect) {
+        add(rect.left, rect.top, rect.right, rect.bottom);
+    }
+
+    /**
+     * Marks the given area as dirty
+     */
+    public void add(int left, int top, int right, int bottom) {
+        if (left >= right || top >= bottom) {
+            return;
+        }
+        mDirty.union(left, top, right, bottom);
+    }
+
+    /**
+     * Marks as dirty only the parts of a bar that changed between two bounds.
+     * <p>
+     * For a bar growing/shrinking along one axis (like the scrubber)
+     * only the spans between the old and the new edges need to be redrawn.
+     * </p>
+     *
+     * @param before   The bounds before the change
+     * @param after    The bounds after the change
+     * @param vertical If the bar runs vertically
+     */
+    public void addSpanDelta(Rect before, Rect after, boolean vertical) {
+        //The cross axis may change too, include the whole bar if so
+        if (vertical ? (before.left != after.left || before.right != after.right)
+                : (before.top != after.top || before.bottom != after.bottom)) {
+            add(before);
+            add(after);
+            return;
+        }
+        if (vertical) {
+            int left = after.left;
+            int right = after.right;
+            add(left, Math.min(before.top, after.top), right, Math.max(before.top, after.top));
+            add(left, Math.min(before.bottom, after.bottom), right, Math.max(before.bottom, after.bottom));
+        } else {
+            int top = after.top;
+            int bottom = after.bottom;
+            add(Math.min(before.left, after.left), top, Math.max(before.left, after.left), bottom);
+            add(Math.min(before.right, after.right), top, Math.max(before.right, after.right), bottom);
+        }
+    }
+
+    /**
+     * Invalidates the accumulated area, if any, and starts over
+     */
+    public void flush() {
+        if (mDirty.isEmpty()) {
+            return;
+        }
+        if (mDebugPaint != null) {
+            //Also clear the previous overlay
+            mDirty.union(mLastInvalidated);
+            mLastInvalidated.set(mDirty);
+        }
+        mView.invalidate(mDirty);
+        mDirty.setEmpty();
+    }
+
+    /**
+     * Drops the accumulated area without invalidating it
+     */
+    public void cancel() {
+        mDirty.setEmpty();
+    }
+
+    /**
+     * If enabled, the last invalidated area will be painted over the View
+     *
+     * @see #drawDebug(android.graphics.Canvas)
+     */
+    public void setDebugEnabled(boolean enabled) {
+        mDebugPaint = enabled ? new Paint() : null;
+        if (mDebugPaint != null) {
+            mDebugPaint.setColor(DEBUG_COLOR);
+        }
+        mLastInvalidated.setEmpty();
+        mView.invalidate();
+    }
+
+    public boolean isDebugEnabled() {
+        return mDebugPaint != null;
+    }
+
+    /**
+     * Paints the last invalidated area. Does nothing if the debug overlay is not enabled.
+     */
+    public void drawDebug(Canvas canvas) {
+        if (mDebugPaint != null && !mLastInvalidated.isEmpty()) {
+            canvas.drawRect(mLastInvalidated, mDebugPaint);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.util.DisplayMetrics;
+
+import org.adw.library.widgets.discreteseekbar.R;
+
+/**
+ * Everything a {@link PopupIndicator} needs from its {@link org.adw.library.widgets.discreteseekbar.DiscreteSeekBar}.
+ * <p>
+ * Keeping it apart from the indicator lets a single indicator be reconfigured
+ * for different DiscreteSeekBars (see {@link IndicatorPool}).
+ * </p>
+ *
+ * @hide
+ */
+public class IndicatorConfig {
+    private static final int ELEVATION_DP = 8;
+
+    int mTextAppearance;
+    ColorStateList mColor;
+    //Color when the Marker is OPEN
+    int mStartColor;
+    //Color when the Marker is CLOSED
+    int mEndColor;
+    float mElevation;
+    int mThumbSize;
+    int mSeparation;
+    boolean mVertical;
+
+    private IndicatorConfig() {
+    }
+
+    /**
+     * Reads the indicator attributes from the already obtained DiscreteSeekBar attributes,
+     * so building the indicator can be deferred without resolving them again.
+     *
+     * @param a          The DiscreteSeekBar styled attributes. Not recycled here.
+     * @param thumbSize  The size of the thumb (the closed Marker size)
+     * @param separation Distance between the thumb and the Marker
+     * @param vertical   If the DiscreteSeekBar is vertical
+     */
+    public static IndicatorConfig read(Context context, TypedArray a, int thumbSize, int separation, boolean vertical) {
+        IndicatorConfig config = new IndicatorConfig();
+        DisplayMetrics displayMetrics = context.getResources().getDisplayMetrics();
+        config.mTextAppearance = a.getResourceId(R.styleable.DiscreteSeekBar_dsb_indicatorTextAppearance,
+                R.style.Widget_DiscreteIndicatorTextAppearance);
+        ColorStateList color = a.getColorStateList(R.styleable.DiscreteSeekBar_dsb_indicatorColor);
+        config.mElevation = a.getDimension(R.styleable.DiscreteSeekBar_dsb_indicatorElevation, ELEVATION_DP * displayMetrics.density);
+        config.mColor = color;
+        config.mStartColor = color.getColorForState(new int[]{android.R.attr.state_enabled, android.R.attr.state_pressed}, color.getDefaultColor());
+        config.mEndColor = color.getDefaultColor();
+        config.mThumbSize = thumbSize;
+        config.mSeparation = separation;
+        config.mVertical = vertical;
+        return config;
+    }
+
+    /**
+     * @param startColor Color used for the seek thumb
+     * @param endColor   Color used for popup indicator
+     * @see org.adw.library.widgets.discreteseekbar.internal.drawable.MarkerDrawable#setColors(int, int)
+     */
+    public void setColors(int startColor, int endColor) {
+        mStartColor = startColor;
+        mEndColor = endColor;
+    }
+}
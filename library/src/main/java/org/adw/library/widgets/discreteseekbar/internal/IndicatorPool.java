@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal;
+
+import android.content.Context;
+import android.view.View;
+
+import org.adw.library.widgets.discreteseekbar.R;
+
+/**
+ * Holds one {@link PopupIndicator} shared by every DiscreteSeekBar of a window.
+ * <p>
+ * Only one indicator can be seen at a time, so instead of every DiscreteSeekBar keeping
+ * its own (idle) window hierarchy, they check this one out when they need to show it
+ * and it gets reconfigured for them.
+ * </p>
+ * <p>
+ * The pool is stored as a tag in the root View of the window, so it lives as long as the window does.
+ * </p>
+ *
+ * @hide
+ */
+public class IndicatorPool {
+    public interface Client {
+        /**
+         * The indicator was dismissed and handed to another client. It must not be used anymore.
+         */
+        public void onIndicatorRevoked();
+    }
+
+    private PopupIndicator mIndicator;
+    private Client mOwner;
+
+    private IndicatorPool() {
+    }
+
+    /**
+     * @param view An attached View
+     * @return the pool for the window of the view
+     */
+    public static IndicatorPool get(View view) {
+        View root = view.getRootView();
+        Object tag = root.getTag(R.id.dsb_indicatorPool);
+        if (tag instanceof IndicatorPool) {
+            return (IndicatorPool) tag;
+        }
+        IndicatorPool pool = new IndicatorPool();
+        root.setTag(R.id.dsb_indicatorPool, pool);
+        return pool;
+    }
+
+    /**
+     * Lends the indicator to the client, configured for it.
+     * If another client was using it, that one is dismissed and notified first.
+     */
+    public PopupIndicator checkout(Client client, Context context, IndicatorConfig config, String maxValue) {
+        Client previous = mOwner;
+        if (previous != null && previous != client) {
+            mOwner = null;
+            mIndicator.dismissComplete();
+            previous.onIndicatorRevoked();
+        }
+        if (mIndicator == null) {
+            mIndicator = new PopupIndicator(context, config, maxValue);
+        } else {
+            mIndicator.configure(config, maxValue);
+        }
+        mOwner = client;
+        return mIndicator;
+    }
+
+    /**
+     * Gives the indicator back. Does nothing if the client is not the current owner.
+     */
+    public void release(Client client) {
+        if (mOwner == client) {
+            mOwner = null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal;
+
+import android.graphics.Paint;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Process wide cache of indicator label widths.
+ * <p>
+ * Labels are grouped in width classes: every digit is considered as wide as the widest digit of its script,
+ * so "-100" and "-999" share the same entry. Entries are keyed by the text appearance, the actual text size and
+ * typeface (they change with the font scale) and the default Locale.
+ * </p>
+ *
+ * @hide
+ */
+public class LabelMetrics {
+    private static final int MAX_ENTRIES = 64;
+
+    private static final Map<String, Float> sWidths = new LinkedHashMap<String, Float>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Float> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private LabelMetrics() {
+    }
+
+    /**
+     * The width, in pixels, of the widest label in the same width class as the given one
+     *
+     * @param paint          the paint of the TextView that will show the labels, with the text appearance already applied
+     * @param textAppearance the text appearance resource used to set up the paint
+     * @param label          the label to measure
+     */
+    public static float getWidth(Paint paint, int textAppearance, String label) {
+        final char[] chars = label.toCharArray();
+        toWidthClass(chars);
+        String key = textAppearance + "/" + paint.getTextSize() + "/" + System.identityHashCode(paint.getTypeface())
+                + "/" + Locale.getDefault() + "/" + new String(chars);
+        synchronized (sWidths) {
+            Float width = sWidths.get(key);
+            if (width != null) {
+                return width;
+            }
+        }
+        toWidestDigits(paint, chars);
+        float width = paint.measureText(chars, 0, chars.length);
+        synchronized (sWidths) {
+            sWidths.put(key, width);
+        }
+        return width;
+    }
+
+    /**
+     * Replaces every digit with the zero of its script
+     */
+    private static void toWidthClass(char[] chars) {
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            if (Character.isDigit(c)) {
+                chars[i] = (char) (c - Character.digit(c, 10));
+            }
+        }
+    }
+
+    /**
+     * Replaces every zero (as left by {@link #toWidthClass(char[])}) with the widest digit of its script
+     */
+    private static void toWidestDigits(Paint paint, char[] chars) {
+        char zero = 0;
+        char widest = 0;
+        for (int i = 0; i < chars.length; i++) {
+            char c = chars[i];
+            if (!Character.isDigit(c)) {
+                continue;
+            }
+            if (c != zero) {
+                zero = c;
+                widest = getWidestDigit(paint, zero);
+            }
+            chars[i] = widest;
+        }
+    }
+
+    private static char getWidestDigit(Paint paint, char zero) {
+        final char[] digit = new char[1];
+        char widest = zero;
+        float widestWidth = -1;
+        for (int i = 0; i < 10; i++) {
+            digit[0] = (char) (zero + i);
+            float width = paint.measureText(digit, 0, 1);
+            if (width > widestWidth) {
+                widestWidth = width;
+                widest = digit[0];
+            }
+        }
+        return widest;
+    }
+}
@@ -17,13 +17,10 @@
 package org.adw.library.widgets.discreteseekbar.internal;
 
 import android.content.Context;
-import android.content.res.ColorStateList;
-import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
 import androidx.core.view.ViewCompat;
-import android.util.AttributeSet;
 import android.util.DisplayMetrics;
 import android.view.Gravity;
 import android.view.View;
@@ -31,7 +28,7 @@ import android.view.ViewGroup;
 import android.widget.FrameLayout;
 import android.widget.TextView;
 
-import org.adw.library.widgets.discreteseekbar.R;
+import org.adw.library.widgets.discreteseekbar.internal.compat.FrameScheduler;
 import org.adw.library.widgets.discreteseekbar.internal.compat.SeekBarCompat;
 import org.adw.library.widgets.discreteseekbar.internal.drawable.MarkerDrawable;
 
@@ -47,7 +44,6 @@ import org.adw.library.widgets.discreteseekbar.internal.drawable.MarkerDrawable;
  */
 public class Marker extends ViewGroup implements MarkerDrawable.MarkerAnimationListener {
     private static final int PADDING_DP = 4;
-    private static final int ELEVATION_DP = 8;
     //The TextView to show the info
     private TextView mNumber;
     //The max width of this View
@@ -55,27 +51,18 @@ public class Marker extends ViewGroup implements MarkerDrawable.MarkerAnimationL
     //some distance between the thumb and our bubble marker.
     //This will be added to our measured height
     private int mSeparation;
+    private int mTextAppearance;
     MarkerDrawable mMarkerDrawable;
 
-    public Marker(Context context, AttributeSet attrs, int defStyleAttr, String maxValue, int thumbSize, int separation) {
-        super(context, attrs, defStyleAttr);
-
-        //as we're reading the parent DiscreteSeekBar attributes, it may wrongly set this view's visibility.
-        setVisibility(View.VISIBLE);
-        
+    public Marker(Context context, IndicatorConfig config, String maxValue) {
+        super(context);
         DisplayMetrics displayMetrics = context.getResources().getDisplayMetrics();
-        TypedArray a = context.obtainStyledAttributes(attrs, R.styleable.DiscreteSeekBar,
-                R.attr.discreteSeekBarStyle, R.style.Widget_DiscreteSeekBar);
 
         int padding = (int) (PADDING_DP * displayMetrics.density) * 2;
-        int textAppearanceId = a.getResourceId(R.styleable.DiscreteSeekBar_dsb_indicatorTextAppearance,
-                R.style.Widget_DiscreteIndicatorTextAppearance);
         mNumber = new TextView(context);
         //Add some padding to this textView so the bubble has some space to breath
         mNumber.setPadding(padding, 0, padding, 0);
-        mNumber.setTextAppearance(context, textAppearanceId);
         mNumber.setGravity(Gravity.CENTER);
-        mNumber.setText(maxValue);
         mNumber.setMaxLines(1);
         mNumber.setSingleLine(true);
         SeekBarCompat.setTextDirection(mNumber, TEXT_DIRECTION_LOCALE);
@@ -85,37 +72,59 @@ public class Marker extends ViewGroup implements MarkerDrawable.MarkerAnimationL
         //I'm sure there are better ways of doing this...
         setPadding(padding, padding, padding, padding);
 
-        resetSizes(maxValue);
-
-        mSeparation = separation;
-        ColorStateList color = a.getColorStateList(R.styleable.DiscreteSeekBar_dsb_indicatorColor);
-        mMarkerDrawable = new MarkerDrawable(color, thumbSize);
+        mMarkerDrawable = new MarkerDrawable(config.mColor, config.mThumbSize);
         mMarkerDrawable.setCallback(this);
         mMarkerDrawable.setMarkerListener(this);
         mMarkerDrawable.setExternalOffset(padding);
 
-        //Elevation for anroid 5+
-        float elevation = a.getDimension(R.styleable.DiscreteSeekBar_dsb_indicatorElevation, ELEVATION_DP * displayMetrics.density);
-        ViewCompat.setElevation(this, elevation);
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
             SeekBarCompat.setOutlineProvider(this, mMarkerDrawable);
         }
-        a.recycle();
+        configure(config, maxValue);
+    }
+
+    /**
+     * Applies the text appearance, colors, elevation and sizes of a (maybe different) DiscreteSeekBar
+     */
+    public void configure(IndicatorConfig config, String maxValue) {
+        if (mTextAppearance != config.mTextAppearance) {
+            mTextAppearance = config.mTextAppearance;
+            mNumber.setTextAppearance(getContext(), mTextAppearance);
+        }
+        mSeparation = config.mSeparation;
+        mMarkerDrawable.setColorStateList(config.mColor);
+        mMarkerDrawable.setColors(config.mStartColor, config.mEndColor);
+        mMarkerDrawable.setClosedStateSize(config.mThumbSize);
+        //Elevation for anroid 5+
+        ViewCompat.setElevation(this, config.mElevation);
+        resetSizes(maxValue);
     }
 
     public void resetSizes(String maxValue) {
-        DisplayMetrics displayMetrics = getResources().getDisplayMetrics();
         //Account for negative numbers... is there any proper way of getting the biggest string between our range????
-        mNumber.setText("-" + maxValue);
-        //Do a first forced measure call for the TextView (with the biggest text content),
-        //to calculate the max width and use always the same.
+        //Compute the max width (of the biggest text content) once and use always the same.
         //this avoids the TextView from shrinking and growing when the text content changes
-        int wSpec = MeasureSpec.makeMeasureSpec(displayMetrics.widthPixels, MeasureSpec.AT_MOST);
-        int hSpec = MeasureSpec.makeMeasureSpec(displayMetrics.heightPixels, MeasureSpec.AT_MOST);
-        mNumber.measure(wSpec, hSpec);
-        mWidth = Math.max(mNumber.getMeasuredWidth(), mNumber.getMeasuredHeight());
-        removeView(mNumber);
-        addView(mNumber, new FrameLayout.LayoutParams(mWidth, mWidth, Gravity.LEFT | Gravity.TOP));
+        float textWidth = getLabelWidth(maxValue);
+        int width = (int) Math.ceil(textWidth) + mNumber.getCompoundPaddingLeft() + mNumber.getCompoundPaddingRight();
+        int height = mNumber.getLineHeight() + mNumber.getCompoundPaddingTop() + mNumber.getCompoundPaddingBottom();
+        int size = Math.max(width, height);
+        ViewGroup.LayoutParams params = mNumber.getLayoutParams();
+        if (params == null) {
+            mWidth = size;
+            addView(mNumber, new FrameLayout.LayoutParams(size, size, Gravity.LEFT | Gravity.TOP));
+        } else if (size != mWidth) {
+            mWidth = size;
+            params.width = size;
+            params.height = size;
+            requestLayout();
+        }
+    }
+
+    /**
+     * The width of the widest label up to maxValue (negative numbers included), cached by {@link LabelMetrics}
+     */
+    public float getLabelWidth(String maxValue) {
+        return LabelMetrics.getWidth(mNumber.getPaint(), mTextAppearance, "-" + maxValue);
     }
 
     @Override
@@ -169,6 +178,19 @@ public class Marker extends ViewGroup implements MarkerDrawable.MarkerAnimationL
         mNumber.setText(value);
     }
 
+    /**
+     * Sets the value without creating a String.
+     * <p>
+     * The TextView keeps a reference to the array, so it must not be changed
+     * until the next call to this method.
+     * </p>
+     *
+     * @see TextView#setText(char[], int, int)
+     */
+    public void setValue(char[] value, int start, int length) {
+        mNumber.setText(value, start, length);
+    }
+
     public CharSequence getValue() {
         return mNumber.getText();
     }
@@ -208,4 +230,8 @@ public class Marker extends ViewGroup implements MarkerDrawable.MarkerAnimationL
     public void setColors(int startColor, int endColor) {
         mMarkerDrawable.setColors(startColor, endColor);
     }
+
+    public void setFrameScheduler(FrameScheduler scheduler) {
+        mMarkerDrawable.setFrameScheduler(scheduler);
+    }
 }
@@ -22,7 +22,6 @@ import android.graphics.Point;
 import android.graphics.Rect;
 import android.os.IBinder;
 import androidx.core.view.GravityCompat;
-import android.util.AttributeSet;
 import android.util.DisplayMetrics;
 import android.view.Gravity;
 import android.view.View;
@@ -30,6 +29,7 @@ import android.view.ViewGroup;
 import android.view.WindowManager;
 import android.widget.FrameLayout;
 
+import org.adw.library.widgets.discreteseekbar.internal.compat.FrameScheduler;
 import org.adw.library.widgets.discreteseekbar.internal.compat.SeekBarCompat;
 import org.adw.library.widgets.discreteseekbar.internal.drawable.MarkerDrawable;
 
@@ -60,10 +60,21 @@ public class PopupIndicator {
     Point screenSize = new Point();
     private boolean mVertical;
 
-    public PopupIndicator(Context context, AttributeSet attrs, int defStyleAttr, String maxValue, int thumbSize, int separation, boolean vertical) {
+    public PopupIndicator(Context context, IndicatorConfig config, String maxValue) {
         mWindowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
-        mPopupView = new Floater(context, attrs, defStyleAttr, maxValue, thumbSize, separation, vertical);
-        mVertical = vertical;
+        mPopupView = new Floater(context, config, maxValue);
+        mVertical = config.mVertical;
+    }
+
+    /**
+     * Reconfigures this indicator for a (maybe different) DiscreteSeekBar.
+     * It will be dismissed if it was showing.
+     */
+    public void configure(IndicatorConfig config, String maxValue) {
+        dismissComplete();
+        mVertical = config.mVertical;
+        mPopupView.mVertical = config.mVertical;
+        mPopupView.mMarker.configure(config, maxValue);
     }
 
     public void updateSizes(String maxValue) {
@@ -73,6 +84,13 @@ public class PopupIndicator {
         }
     }
 
+    /**
+     * The width {@link #updateSizes(String)} would size the label for, cheap to call for every new max
+     */
+    public float getLabelWidth(String maxValue) {
+        return mPopupView.mMarker.getLabelWidth(maxValue);
+    }
+
     public void setListener(MarkerDrawable.MarkerAnimationListener listener) {
         mListener = listener;
     }
@@ -98,6 +116,10 @@ public class PopupIndicator {
         mPopupView.mMarker.setValue(value);
     }
 
+    public void setValue(char[] value, int start, int length) {
+        mPopupView.mMarker.setValue(value, start, length);
+    }
+
     public boolean isShowing() {
         return mShowing;
     }
@@ -132,6 +154,13 @@ public class PopupIndicator {
         mPopupView.setColors(startColor, endColor);
     }
 
+    /**
+     * Sets the {@link FrameScheduler} to run the Marker animations with the rest of the DiscreteSeekBar ones
+     */
+    public void setFrameScheduler(FrameScheduler scheduler) {
+        mPopupView.mMarker.setFrameScheduler(scheduler);
+    }
+
     /**
      * This will start the closing animation of the Marker and call onClosingComplete when finished
      */
@@ -234,10 +263,10 @@ public class PopupIndicator {
         private int mOffset;
         private boolean mVertical;
 
-        public Floater(Context context, AttributeSet attrs, int defStyleAttr, String maxValue, int thumbSize, int separation, boolean vertical) {
+        public Floater(Context context, IndicatorConfig config, String maxValue) {
             super(context);
-            mVertical = vertical;
-            mMarker = new Marker(context, attrs, defStyleAttr, maxValue, thumbSize, separation);
+            mVertical = config.mVertical;
+            mMarker = new Marker(context, config, maxValue);
             addView(mMarker, new LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT, Gravity.LEFT | Gravity.TOP));
         }
 
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal;
+
+import android.content.res.ColorStateList;
+import android.graphics.Canvas;
+import android.graphics.drawable.Drawable;
+import androidx.annotation.NonNull;
+
+import org.adw.library.widgets.discreteseekbar.ValueScale;
+import org.adw.library.widgets.discreteseekbar.internal.drawable.TickMarkDrawable;
+
+/**
+ * Tick marks along the track.
+ * <p>
+ * Positions are computed once per size/range change into a points array, and drawn in two runs:
+ * every tick mark with the inactive color (meant for the static layer) and the ones over the scrubber
+ * with the active color on top. Each run is a single drawPoints call.
+ * </p>
+ * <p>
+ * Tick marks closer than the minimum spacing to the previous one are skipped, so the work (and the points array)
+ * is bounded by the track length, not by the range.
+ * </p>
+ *
+ * @hide
+ */
+public class TickMarks {
+    private final TickMarkDrawable mInactive;
+    private final TickMarkDrawable mActive;
+    private long mInterval;
+    private int mMinSpacing;
+
+    //Offsets along the track (ascending) and their x,y pairs
+    private int[] mOffsets = new int[0];
+    private float[] mPoints = new float[0];
+    private int mCount;
+    //The tick marks over the scrubber, packed so they're drawn with a single call
+    private float[] mActivePoints = new float[0];
+
+    public TickMarks(@NonNull ColorStateList inactiveColor, @NonNull ColorStateList activeColor, int size) {
+        mInactive = new TickMarkDrawable(inactiveColor, size);
+        mActive = new TickMarkDrawable(activeColor, size);
+    }
+
+    public Drawable getInactiveDrawable() {
+        return mInactive;
+    }
+
+    public Drawable getActiveDrawable() {
+        return mActive;
+    }
+
+    public void setCallback(Drawable.Callback callback) {
+        mInactive.setCallback(callback);
+        mActive.setCallback(callback);
+    }
+
+    public void setState(int[] state) {
+        mInactive.setState(state);
+        mActive.setState(state);
+    }
+
+    public void setColors(@NonNull ColorStateList inactiveColor, @NonNull ColorStateList activeColor) {
+        mInactive.setColorStateList(inactiveColor);
+        mActive.setColorStateList(activeColor);
+    }
+
+    public int getSize() {
+        return mInactive.getSize();
+    }
+
+    public void setSize(int size) {
+        mInactive.setSize(size);
+        mActive.setSize(size);
+    }
+
+    /**
+     * @param interval   values between tick marks, at least 1
+     * @param minSpacing minimum pixels between two drawn tick marks, at least 1
+     */
+    public void setSpacing(long interval, int minSpacing) {
+        mInterval = Math.max(1, interval);
+        mMinSpacing = Math.max(1, minSpacing);
+    }
+
+    /**
+     * Computes the tick marks positions
+     *
+     * @param scale     The {@link ValueScale} of the track
+     * @param available The track length in pixels
+     * @param startX    x of the track start (offset 0)
+     * @param startY    y of the track start (offset 0)
+     * @param dirX      the track direction (-1, 0 or 1) along x
+     * @param dirY      the track direction (-1, 0 or 1) along y
+     */
+    public void layout(ValueScale scale, long min, long max, int available,
+                       float startX, float startY, int dirX, int dirY) {
+        mCount = 0;
+        if (available <= 0 || max <= min) {
+            updateRuns();
+            return;
+        }
+        ensureCapacity(available / mMinSpacing + 2);
+        final long interval = mInterval;
+        final int minSpacing = mMinSpacing;
+        long value = min;
+        int last = scale.valueToPosition(min, min, max, available);
+        add(last, startX, startY, dirX, dirY);
+        ticks:
+        while (value < max) {
+            long next = scale.nextTick(value, interval, min, max);
+            if (next <= value) {
+                break;
+            }
+            int position = scale.valueToPosition(next, min, max, available);
+            //Too close to the last one: jump straight to the first one far enough,
+            //looking one pixel further each time the rounding falls short
+            int target = last + minSpacing;
+            while (position - last < minSpacing) {
+                if (target > available) {
+                    break ticks;
+                }
+                long far = scale.positionToValue(target, available, min, max);
+                if (far > next) {
+                    next = scale.nextTick(far - 1, interval, min, max);
+                    position = scale.valueToPosition(next, min, max, available);
+                }
+                target++;
+            }
+            add(position, startX, startY, dirX, dirY);
+            last = position;
+            value = next;
+        }
+        updateRuns();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (mOffsets.length < capacity) {
+            mOffsets = new int[capacity];
+            mPoints = new float[capacity * 2];
+            mActivePoints = new float[capacity * 2];
+        }
+    }
+
+    private void add(int offset, float startX, float startY, int dirX, int dirY) {
+        final int index = mCount++;
+        mOffsets[index] = offset;
+        mPoints[index * 2] = startX + dirX * offset;
+        mPoints[index * 2 + 1] = startY + dirY * offset;
+    }
+
+    private void updateRuns() {
+        mInactive.setPoints(mPoints, 0, mCount);
+        mActive.setPoints(mActivePoints, 0, 0);
+    }
+
+    /**
+     * Sets the tick marks drawn with the active color: the ones within the spans (inclusive)
+     *
+     * @param spans start and end offsets of every span
+     * @param count the number of spans
+     */
+    public void setActiveSpans(int[] spans, int count) {
+        final float[] points = mPoints;
+        final float[] active = mActivePoints;
+        int activeCount = 0;
+        //Spans are in ascending order, but two of them can share an end
+        int previousEnd = 0;
+        for (int i = 0; i < count; i++) {
+            int from = Math.min(spans[i * 2], spans[i * 2 + 1]);
+            int to = Math.max(spans[i * 2], spans[i * 2 + 1]);
+            int first = Math.max(previousEnd, lowerBound(from));
+            int end = lowerBound(to + 1);
+            if (end > first) {
+                System.arraycopy(points, first * 2, active, activeCount * 2, (end - first) * 2);
+                activeCount += end - first;
+                previousEnd = end;
+            }
+        }
+        mActive.setPoints(active, 0, activeCount);
+    }
+
+    /**
+     * Binary search for the first tick mark at or after an offset
+     */
+    private int lowerBound(int offset) {
+        final int[] offsets = mOffsets;
+        int low = 0;
+        int high = mCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (offsets[mid] < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public void drawInactive(Canvas canvas) {
+        mInactive.draw(canvas);
+    }
+
+    public void drawActive(Canvas canvas) {
+        mActive.draw(canvas);
+    }
+}
@@ -17,6 +17,8 @@
 package org.adw.library.widgets.discreteseekbar.internal.compat;
 
 import android.os.Build;
+import android.view.animation.AccelerateDecelerateInterpolator;
+import android.view.animation.Interpolator;
 
 /**
  * Currently, there's no {@link android.animation.ValueAnimator} compatibility version
@@ -49,6 +51,8 @@ public abstract class AnimatorCompat {
 
     public abstract void setDuration(int progressAnimationDuration);
 
+    public abstract void setInterpolator(Interpolator interpolator);
+
     public abstract void start();
 
     public static final AnimatorCompat create(float start, float end, AnimationFrameUpdateListener listener) {
@@ -59,6 +63,72 @@ public abstract class AnimatorCompat {
         }
     }
 
+    /**
+     * Creates an animator driven by the given {@link FrameScheduler} instead of its own clock.
+     * This works the same on every API level.
+     */
+    public static final AnimatorCompat create(FrameScheduler scheduler, float start, float end, AnimationFrameUpdateListener listener) {
+        return new AnimatorCompatFrame(scheduler, start, end, listener);
+    }
+
+    private static class AnimatorCompatFrame extends AnimatorCompat implements FrameScheduler.FrameCallback {
+        //Same default interpolator as ValueAnimator
+        private Interpolator mInterpolator = new AccelerateDecelerateInterpolator();
+        private final FrameScheduler mScheduler;
+        private final AnimationFrameUpdateListener mListener;
+        private final float mStartValue;
+        private final float mEndValue;
+        private int mDuration = 300;
+        private long mStartTime;
+
+        public AnimatorCompatFrame(FrameScheduler scheduler, float start, float end, AnimationFrameUpdateListener listener) {
+            mScheduler = scheduler;
+            mListener = listener;
+            mStartValue = start;
+            mEndValue = end;
+        }
+
+        @Override
+        public void cancel() {
+            mScheduler.remove(this);
+        }
+
+        @Override
+        public boolean isRunning() {
+            return mScheduler.contains(this);
+        }
+
+        @Override
+        public void setDuration(int duration) {
+            mDuration = duration;
+        }
+
+        @Override
+        public void setInterpolator(Interpolator interpolator) {
+            mInterpolator = interpolator;
+        }
+
+        @Override
+        public void start() {
+            mStartTime = mScheduler.now();
+            mScheduler.add(this);
+        }
+
+        @Override
+        public boolean onFrame(long frameTimeMillis) {
+            long diff = Math.max(0, frameTimeMillis - mStartTime);
+            if (diff < mDuration) {
+                float interpolation = mInterpolator.getInterpolation((float) diff / (float) mDuration);
+                mListener.onAnimationFrame(mStartValue + (mEndValue - mStartValue) * interpolation);
+                return true;
+            }
+            //Unregister before notifying, so isRunning() is already false and the listener can start again
+            mScheduler.remove(this);
+            mListener.onAnimationFrame(mEndValue);
+            return mScheduler.contains(this);
+        }
+    }
+
     private static class AnimatorCompatBase extends AnimatorCompat {
 
         private final AnimationFrameUpdateListener mListener;
@@ -84,6 +154,11 @@ public abstract class AnimatorCompat {
 
         }
 
+        @Override
+        public void setInterpolator(Interpolator interpolator) {
+
+        }
+
         @Override
         public void start() {
             mListener.onAnimationFrame(mEndValue);
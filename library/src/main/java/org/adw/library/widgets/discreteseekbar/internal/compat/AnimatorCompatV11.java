@@ -19,6 +19,7 @@ package org.adw.library.widgets.discreteseekbar.internal.compat;
 import android.animation.ValueAnimator;
 import android.annotation.TargetApi;
 import android.os.Build;
+import android.view.animation.Interpolator;
 
 /**
  * Class to wrap a {@link android.animation.ValueAnimator}
@@ -58,6 +59,11 @@ public class AnimatorCompatV11 extends AnimatorCompat {
         animator.setDuration(duration);
     }
 
+    @Override
+    public void setInterpolator(Interpolator interpolator) {
+        animator.setInterpolator(interpolator);
+    }
+
     @Override
     public void start() {
         animator.start();
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.compat;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+
+/**
+ * A single animation clock shared by everything animating inside one
+ * {@link org.adw.library.widgets.discreteseekbar.DiscreteSeekBar}.
+ * <p>
+ * Instead of every Drawable posting its own Runnable every 16ms, they register a {@link FrameCallback}
+ * here and all of them run from one frame callback. On API>=16 this is vsync aligned
+ * (via {@link android.view.Choreographer}), so it follows 90/120Hz panels.
+ * On older APIs a Handler is used with the old fixed frame duration.
+ * </p>
+ * <p>
+ * Nothing is posted when there are no callbacks registered, and callbacks registered with a delay
+ * don't wake up any frame until it expires.
+ * It must be used from the UI thread.
+ * </p>
+ *
+ * @hide
+ */
+public abstract class FrameScheduler {
+    public interface FrameCallback {
+        /**
+         * Called once per frame while registered
+         *
+         * @param frameTimeMillis the frame time, in the {@link android.os.SystemClock#uptimeMillis()} time base
+         * @return true to keep receiving frames, false to be unregistered
+         */
+        public boolean onFrame(long frameTimeMillis);
+    }
+
+    private static class Delayed {
+        final FrameCallback callback;
+        final long startTime;
+
+        Delayed(FrameCallback callback, long startTime) {
+            this.callback = callback;
+            this.startTime = startTime;
+        }
+    }
+
+    private final ArrayList<FrameCallback> mCallbacks = new ArrayList<FrameCallback>();
+    //Callbacks waiting for their delay to expire
+    private final ArrayList<Delayed> mDelayed = new ArrayList<Delayed>();
+    private Handler mHandler;
+    //Reused copy of mCallbacks to allow callbacks to add/remove while we're dispatching
+    private FrameCallback[] mDispatching = new FrameCallback[4];
+    private boolean mFramePosted;
+
+    FrameScheduler() {
+
+    }
+
+    public static FrameScheduler create() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            return new FrameSchedulerJB();
+        } else {
+            return new FrameSchedulerBase();
+        }
+    }
+
+    /**
+     * The current time in the same time base as the frame times
+     */
+    public long now() {
+        return SystemClock.uptimeMillis();
+    }
+
+    /**
+     * Registers the callback to be called on every frame, cancelling any delay. Does nothing if it's already registered.
+     */
+    public void add(FrameCallback callback) {
+        if (removeDelayed(callback)) {
+            scheduleDelayed();
+        }
+        if (!mCallbacks.contains(callback)) {
+            mCallbacks.add(callback);
+        }
+        if (!mFramePosted) {
+            mFramePosted = true;
+            postFrame();
+        }
+    }
+
+    /**
+     * Registers the callback to be called on every frame, starting with the first frame after the delay.
+     * Nothing is posted in the meantime. If it was already registered, it's delayed again.
+     */
+    public void addDelayed(FrameCallback callback, long delayMillis) {
+        remove(callback);
+        mDelayed.add(new Delayed(callback, now() + delayMillis));
+        scheduleDelayed();
+    }
+
+    public void remove(FrameCallback callback) {
+        if (removeDelayed(callback)) {
+            scheduleDelayed();
+        }
+        mCallbacks.remove(callback);
+        if (mCallbacks.isEmpty() && mFramePosted) {
+            mFramePosted = false;
+            cancelFrame();
+        }
+    }
+
+    public boolean contains(FrameCallback callback) {
+        return mCallbacks.contains(callback) || indexOfDelayed(callback) >= 0;
+    }
+
+    /**
+     * @return true if there's anything animating
+     */
+    public boolean isRunning() {
+        return !mCallbacks.isEmpty();
+    }
+
+    void dispatchFrame(long frameTimeMillis) {
+        mFramePosted = false;
+        final int count = mCallbacks.size();
+        if (mDispatching.length < count) {
+            mDispatching = new FrameCallback[count * 2];
+        }
+        final FrameCallback[] dispatching = mDispatching;
+        mCallbacks.toArray(dispatching);
+        for (int i = 0; i < count; i++) {
+            FrameCallback callback = dispatching[i];
+            dispatching[i] = null;
+            //It may have been removed by a previous callback
+            if (mCallbacks.contains(callback) && !callback.onFrame(frameTimeMillis)) {
+                mCallbacks.remove(callback);
+            }
+        }
+        if (!mCallbacks.isEmpty() && !mFramePosted) {
+            mFramePosted = true;
+            postFrame();
+        }
+    }
+
+    private int indexOfDelayed(FrameCallback callback) {
+        for (int i = 0; i < mDelayed.size(); i++) {
+            if (mDelayed.get(i).callback == callback) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean removeDelayed(FrameCallback callback) {
+        int index = indexOfDelayed(callback);
+        if (index >= 0) {
+            mDelayed.remove(index);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Posts a single wake up for the first delay to expire
+     */
+    private void scheduleDelayed() {
+        final Handler handler = getHandler();
+        handler.removeCallbacks(mStartDelayed);
+        if (mDelayed.isEmpty()) {
+            return;
+        }
+        long first = Long.MAX_VALUE;
+        for (int i = 0; i < mDelayed.size(); i++) {
+            first = Math.min(first, mDelayed.get(i).startTime);
+        }
+        handler.postAtTime(mStartDelayed, first);
+    }
+
+    private final Runnable mStartDelayed = new Runnable() {
+        @Override
+        public void run() {
+            final long now = now();
+            for (int i = mDelayed.size() - 1; i >= 0; i--) {
+                Delayed delayed = mDelayed.get(i);
+                if (delayed.startTime <= now) {
+                    mDelayed.remove(i);
+                    add(delayed.callback);
+                }
+            }
+            scheduleDelayed();
+        }
+    };
+
+    Handler getHandler() {
+        if (mHandler == null) {
+            mHandler = new Handler(Looper.getMainLooper());
+        }
+        return mHandler;
+    }
+
+    abstract void postFrame();
+
+    abstract void cancelFrame();
+
+    private static class FrameSchedulerBase extends FrameScheduler implements Runnable {
+        private static final long FRAME_DURATION = 1000 / 60;
+
+        @Override
+        void postFrame() {
+            getHandler().postAtTime(this, SystemClock.uptimeMillis() + FRAME_DURATION);
+        }
+
+        @Override
+        void cancelFrame() {
+            getHandler().removeCallbacks(this);
+        }
+
+        @Override
+        public void run() {
+            dispatchFrame(SystemClock.uptimeMillis());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.compat;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.view.Choreographer;
+
+/**
+ * {@link FrameScheduler} driven by {@link android.view.Choreographer} frame callbacks
+ *
+ * @hide
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+class FrameSchedulerJB extends FrameScheduler implements Choreographer.FrameCallback {
+    private static final long NANOS_PER_MS = 1000000;
+    private Choreographer mChoreographer;
+
+    @Override
+    void postFrame() {
+        if (mChoreographer == null) {
+            mChoreographer = Choreographer.getInstance();
+        }
+        mChoreographer.postFrameCallback(this);
+    }
+
+    @Override
+    void cancelFrame() {
+        if (mChoreographer != null) {
+            mChoreographer.removeFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        //Choreographer uses System.nanoTime(), which is the same clock as SystemClock.uptimeMillis()
+        dispatchFrame(frameTimeNanos / NANOS_PER_MS);
+    }
+}
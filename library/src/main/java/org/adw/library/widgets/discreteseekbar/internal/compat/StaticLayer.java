@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.compat;
+
+import android.graphics.Canvas;
+import android.os.Build;
+
+/**
+ * Caches the drawing of things that don't change every frame (like the track).
+ * <p>
+ * The content is recorded once and replayed on every draw until {@link #invalidate()} is called.
+ * On API>=29 this uses a {@link android.graphics.RenderNode}, on API>=23 a {@link android.graphics.Picture}.
+ * Older APIs and software (non hardware accelerated) canvases just draw the content every time.
+ * </p>
+ *
+ * @hide
+ */
+public abstract class StaticLayer {
+    public interface Recorder {
+        /**
+         * Draw the static content into the canvas
+         */
+        public void onRecordLayer(Canvas canvas);
+    }
+
+    boolean mDirty = true;
+
+    StaticLayer() {
+
+    }
+
+    public static StaticLayer create() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            return new StaticLayerQ();
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            return new StaticLayerM();
+        } else {
+            return new StaticLayerBase();
+        }
+    }
+
+    /**
+     * Marks the content as changed, it will be recorded again on the next draw
+     */
+    public void invalidate() {
+        mDirty = true;
+    }
+
+    /**
+     * Draws the cached content, recording it first if needed
+     *
+     * @param canvas   The canvas to draw into
+     * @param width    The width of the layer
+     * @param height   The height of the layer
+     * @param recorder The one drawing the actual content
+     */
+    public abstract void draw(Canvas canvas, int width, int height, Recorder recorder);
+
+    /**
+     * Frees the recorded content, if any
+     */
+    public void release() {
+        mDirty = true;
+    }
+
+    private static class StaticLayerBase extends StaticLayer {
+        @Override
+        public void draw(Canvas canvas, int width, int height, Recorder recorder) {
+            recorder.onRecordLayer(canvas);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.compat;
+
+import android.annotation.TargetApi;
+import android.graphics.Canvas;
+import android.graphics.Picture;
+import android.os.Build;
+
+/**
+ * {@link StaticLayer} recording into a {@link android.graphics.Picture}.
+ * Hardware canvases can only draw Pictures from API 23.
+ *
+ * @hide
+ */
+@TargetApi(Build.VERSION_CODES.M)
+class StaticLayerM extends StaticLayer {
+    private Picture mPicture;
+
+    @Override
+    public void draw(Canvas canvas, int width, int height, Recorder recorder) {
+        if (!canvas.isHardwareAccelerated()) {
+            //Software fallback, no gain in using a Picture here
+            recorder.onRecordLayer(canvas);
+            return;
+        }
+        if (mPicture == null) {
+            mPicture = new Picture();
+            mDirty = true;
+        }
+        if (mDirty || mPicture.getWidth() != width || mPicture.getHeight() != height) {
+            Canvas recording = mPicture.beginRecording(width, height);
+            recorder.onRecordLayer(recording);
+            mPicture.endRecording();
+            mDirty = false;
+        }
+        canvas.drawPicture(mPicture);
+    }
+
+    @Override
+    public void release() {
+        super.release();
+        mPicture = null;
+    }
+}
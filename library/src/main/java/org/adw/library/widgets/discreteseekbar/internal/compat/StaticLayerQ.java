@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.compat;
+
+import android.annotation.TargetApi;
+import android.graphics.Canvas;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.os.Build;
+
+/**
+ * {@link StaticLayer} recording into its own {@link android.graphics.RenderNode},
+ * so the display list is kept by the RenderThread and just replayed.
+ *
+ * @hide
+ */
+@TargetApi(Build.VERSION_CODES.Q)
+class StaticLayerQ extends StaticLayer {
+    private RenderNode mNode;
+    private int mWidth;
+    private int mHeight;
+
+    @Override
+    public void draw(Canvas canvas, int width, int height, Recorder recorder) {
+        if (!canvas.isHardwareAccelerated()) {
+            //Software fallback, RenderNodes can't be drawn here
+            recorder.onRecordLayer(canvas);
+            return;
+        }
+        if (mNode == null) {
+            mNode = new RenderNode("DiscreteSeekBar:StaticLayer");
+            mDirty = true;
+        }
+        if (mDirty || !mNode.hasDisplayList() || mWidth != width || mHeight != height) {
+            mWidth = width;
+            mHeight = height;
+            mNode.setPosition(0, 0, width, height);
+            RecordingCanvas recording = mNode.beginRecording(width, height);
+            try {
+                recorder.onRecordLayer(recording);
+            } finally {
+                mNode.endRecording();
+            }
+            mDirty = false;
+        }
+        canvas.drawRenderNode(mNode);
+    }
+
+    @Override
+    public void release() {
+        super.release();
+        if (mNode != null) {
+            mNode.discardDisplayList();
+        }
+    }
+}
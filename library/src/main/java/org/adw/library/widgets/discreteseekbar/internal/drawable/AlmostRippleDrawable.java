@@ -22,47 +22,43 @@ import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.drawable.Animatable;
-import android.os.SystemClock;
+import android.graphics.drawable.Drawable;
 import androidx.annotation.NonNull;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.Interpolator;
 
+import org.adw.library.widgets.discreteseekbar.internal.compat.FrameScheduler;
+
 public class AlmostRippleDrawable extends StateDrawable implements Animatable {
-    private static final long FRAME_DURATION = 1000 / 60;
     private static final int ANIMATION_DURATION = 250;
 
     private static final float INACTIVE_SCALE = 0f;
     private static final float ACTIVE_SCALE = 1f;
+    //Stateless, so every instance can use the same one
+    private static final Interpolator INTERPOLATOR = new AccelerateDecelerateInterpolator();
     private float mCurrentScale = INACTIVE_SCALE;
-    private Interpolator mInterpolator;
     private long mStartTime;
     private boolean mReverse = false;
     private boolean mRunning = false;
     private int mDuration = ANIMATION_DURATION;
     private float mAnimationInitialValue;
-    //We don't use colors just with our drawable state because of animations
-    private int mPressedColor;
-    private int mFocusedColor;
-    private int mDisabledColor;
     private int mRippleColor;
     private int mRippleBgColor;
 
     public AlmostRippleDrawable(@NonNull ColorStateList tintStateList) {
-        super(tintStateList);
-        mInterpolator = new AccelerateDecelerateInterpolator();
-        setColor(tintStateList);
+        super(intern(new RippleState(tintStateList)));
+    }
+
+    AlmostRippleDrawable(@NonNull RippleState state) {
+        super(state);
     }
 
     public void setColor(@NonNull ColorStateList tintStateList) {
-        int defaultColor = tintStateList.getDefaultColor();
-        mFocusedColor = tintStateList.getColorForState(new int[]{android.R.attr.state_enabled, android.R.attr.state_focused}, defaultColor);
-        mPressedColor = tintStateList.getColorForState(new int[]{android.R.attr.state_enabled, android.R.attr.state_pressed}, defaultColor);
-        mDisabledColor = tintStateList.getColorForState(new int[]{-android.R.attr.state_enabled}, defaultColor);
-
-        //The ripple should be partially transparent
-        mFocusedColor = getModulatedAlphaColor(130, mFocusedColor);
-        mPressedColor = getModulatedAlphaColor(130, mPressedColor);
-        mDisabledColor = getModulatedAlphaColor(130, mDisabledColor);
+        setColorStateList(tintStateList);
+    }
+
+    private RippleState getRippleState() {
+        return (RippleState) getSharedState();
     }
 
     private static int getModulatedAlphaColor(int alphaValue, int originalColor) {
@@ -123,21 +119,22 @@ public class AlmostRippleDrawable extends StateDrawable implements Animatable {
             }
         }
 
+        final RippleState state = getRippleState();
         if (disabled) {
-            unscheduleSelf(mUpdater);
-            mRippleColor = mDisabledColor;
+            getFrameScheduler().remove(mUpdater);
+            mRippleColor = state.mDisabledColor;
             mRippleBgColor = 0;
             mCurrentScale = ACTIVE_SCALE / 2;
             invalidateSelf();
         } else {
             if (pressed) {
                 animateToPressed();
-                mRippleColor = mRippleBgColor = mPressedColor;
+                mRippleColor = mRippleBgColor = state.mPressedColor;
             } else if (oldPressed) {
-                mRippleColor = mRippleBgColor = mPressedColor;
+                mRippleColor = mRippleBgColor = state.mPressedColor;
                 animateToNormal();
             } else if (focused) {
-                mRippleColor = mFocusedColor;
+                mRippleColor = state.mFocusedColor;
                 mRippleBgColor = 0;
                 mCurrentScale = ACTIVE_SCALE;
                 invalidateSelf();
@@ -152,28 +149,30 @@ public class AlmostRippleDrawable extends StateDrawable implements Animatable {
     }
 
     public void animateToPressed() {
-        unscheduleSelf(mUpdater);
+        final FrameScheduler scheduler = getFrameScheduler();
+        scheduler.remove(mUpdater);
         if (mCurrentScale < ACTIVE_SCALE) {
             mReverse = false;
             mRunning = true;
             mAnimationInitialValue = mCurrentScale;
             float durationFactor = 1f - ((mAnimationInitialValue - INACTIVE_SCALE) / (ACTIVE_SCALE - INACTIVE_SCALE));
             mDuration = (int) (ANIMATION_DURATION * durationFactor);
-            mStartTime = SystemClock.uptimeMillis();
-            scheduleSelf(mUpdater, mStartTime + FRAME_DURATION);
+            mStartTime = scheduler.now();
+            scheduler.add(mUpdater);
         }
     }
 
     public void animateToNormal() {
-        unscheduleSelf(mUpdater);
+        final FrameScheduler scheduler = getFrameScheduler();
+        scheduler.remove(mUpdater);
         if (mCurrentScale > INACTIVE_SCALE) {
             mReverse = true;
             mRunning = true;
             mAnimationInitialValue = mCurrentScale;
             float durationFactor = 1f - ((mAnimationInitialValue - ACTIVE_SCALE) / (INACTIVE_SCALE - ACTIVE_SCALE));
             mDuration = (int) (ANIMATION_DURATION * durationFactor);
-            mStartTime = SystemClock.uptimeMillis();
-            scheduleSelf(mUpdater, mStartTime + FRAME_DURATION);
+            mStartTime = scheduler.now();
+            scheduler.add(mUpdater);
         }
     }
 
@@ -184,21 +183,19 @@ public class AlmostRippleDrawable extends StateDrawable implements Animatable {
         invalidateSelf();
     }
 
-    private final Runnable mUpdater = new Runnable() {
+    private final FrameScheduler.FrameCallback mUpdater = new FrameScheduler.FrameCallback() {
 
         @Override
-        public void run() {
-
-            long currentTime = SystemClock.uptimeMillis();
-            long diff = currentTime - mStartTime;
+        public boolean onFrame(long frameTimeMillis) {
+            long diff = Math.max(0, frameTimeMillis - mStartTime);
             if (diff < mDuration) {
-                float interpolation = mInterpolator.getInterpolation((float) diff / (float) mDuration);
-                scheduleSelf(mUpdater, currentTime + FRAME_DURATION);
+                float interpolation = INTERPOLATOR.getInterpolation((float) diff / (float) mDuration);
                 updateAnimation(interpolation);
+                return true;
             } else {
-                unscheduleSelf(mUpdater);
                 mRunning = false;
                 updateAnimation(1f);
+                return false;
             }
         }
     };
@@ -217,4 +214,39 @@ public class AlmostRippleDrawable extends StateDrawable implements Animatable {
     public boolean isRunning() {
         return mRunning;
     }
+
+    static class RippleState extends SharedState {
+        //We don't use colors just with our drawable state because of animations
+        final int mPressedColor;
+        final int mFocusedColor;
+        final int mDisabledColor;
+
+        RippleState(@NonNull ColorStateList tintStateList) {
+            super(tintStateList);
+            int defaultColor = tintStateList.getDefaultColor();
+            int focusedColor = tintStateList.getColorForState(new int[]{android.R.attr.state_enabled, android.R.attr.state_focused}, defaultColor);
+            int pressedColor = tintStateList.getColorForState(new int[]{android.R.attr.state_enabled, android.R.attr.state_pressed}, defaultColor);
+            int disabledColor = tintStateList.getColorForState(new int[]{-android.R.attr.state_enabled}, defaultColor);
+
+            //The ripple should be partially transparent
+            mFocusedColor = getModulatedAlphaColor(130, focusedColor);
+            mPressedColor = getModulatedAlphaColor(130, pressedColor);
+            mDisabledColor = getModulatedAlphaColor(130, disabledColor);
+        }
+
+        RippleState(@NonNull RippleState orig, @NonNull ColorStateList tintStateList) {
+            this(tintStateList);
+            mColorFilter = orig.mColorFilter;
+        }
+
+        @Override
+        SharedState copy(@NonNull ColorStateList tintStateList) {
+            return new RippleState(this, tintStateList);
+        }
+
+        @Override
+        public Drawable newDrawable() {
+            return new AlmostRippleDrawable(this);
+        }
+    }
 }
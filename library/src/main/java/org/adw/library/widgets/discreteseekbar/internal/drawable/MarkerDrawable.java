@@ -18,18 +18,21 @@ package org.adw.library.widgets.discreteseekbar.internal.drawable;
 
 import android.content.res.ColorStateList;
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.drawable.Animatable;
-import android.os.SystemClock;
+import android.graphics.drawable.Drawable;
 import androidx.annotation.NonNull;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.Interpolator;
 
+import org.adw.library.widgets.discreteseekbar.internal.compat.FrameScheduler;
+import org.adw.library.widgets.discreteseekbar.internal.math.ColorMath;
+import org.adw.library.widgets.discreteseekbar.internal.math.MarkerGeometry;
+
 /**
  * Implementation of {@link StateDrawable} to draw a morphing marker symbol.
  * <p>
@@ -44,42 +47,65 @@ import android.view.animation.Interpolator;
  * @hide
  */
 public class MarkerDrawable extends StateDrawable implements Animatable {
-    private static final long FRAME_DURATION = 1000 / 60;
     private static final int ANIMATION_DURATION = 250;
+    //Number of cached shapes between the closed and the open state
+    private static final int PATH_CACHE_STEPS = 32;
+    //Stateless, so every instance can use the same one
+    private static final Interpolator INTERPOLATOR = new AccelerateDecelerateInterpolator();
 
     private float mCurrentScale = 0f;
-    private Interpolator mInterpolator;
     private long mStartTime;
     private boolean mReverse = false;
     private boolean mRunning = false;
     private int mDuration = ANIMATION_DURATION;
-    //size of the actual thumb drawable to use as circle state size
-    private float mClosedStateSize;
     //value to store que current scale when starting an animation and interpolate from it
     private float mAnimationInitialValue;
     //extra offset directed from the View to account
     //for its internal padding between circle state and marker state
     private int mExternalOffset;
-    //colors for interpolation
-    private int mStartColor;//Color when the Marker is OPEN
-    private int mEndColor;//Color when the arker is CLOSED
 
+    //The current shape. It points to one of the mPathCache entries once we have bounds
     Path mPath = new Path();
+    //Marker shapes at quantized scale steps for the current bounds.
+    //Animation frames just pick one of these instead of rebuilding the Path.
+    private final Path[] mPathCache = new Path[PATH_CACHE_STEPS + 1];
+    private final boolean[] mPathCacheValid = new boolean[PATH_CACHE_STEPS + 1];
     RectF mRect = new RectF();
     Matrix mMatrix = new Matrix();
+    private final MarkerGeometry mGeometry = new MarkerGeometry();
+    private final float[] mCorners = new float[8];
     private MarkerAnimationListener mMarkerListener;
 
     public MarkerDrawable(@NonNull ColorStateList tintList, int closedSize) {
-        super(tintList);
-        mInterpolator = new AccelerateDecelerateInterpolator();
-        mClosedStateSize = closedSize;
-        mStartColor = tintList.getColorForState(new int[]{android.R.attr.state_enabled, android.R.attr.state_pressed}, tintList.getDefaultColor());
-        mEndColor = tintList.getDefaultColor();
+        super(intern(new MarkerState(tintList, closedSize,
+                tintList.getColorForState(new int[]{android.R.attr.state_enabled, android.R.attr.state_pressed}, tintList.getDefaultColor()),
+                tintList.getDefaultColor())));
+    }
+
+    MarkerDrawable(@NonNull MarkerState state) {
+        super(state);
+    }
 
+    private MarkerState getMarkerState() {
+        return (MarkerState) getSharedState();
     }
 
     public void setExternalOffset(int offset) {
-        mExternalOffset = offset;
+        if (mExternalOffset != offset) {
+            mExternalOffset = offset;
+            invalidatePathCache();
+        }
+    }
+
+    /**
+     * Sets the size of the circle (closed) state
+     */
+    public void setClosedStateSize(int closedSize) {
+        final MarkerState state = getMarkerState();
+        if (state.mClosedStateSize != closedSize) {
+            setSharedState(new MarkerState(state, state.mTintStateList, closedSize, state.mStartColor, state.mEndColor));
+            invalidatePathCache();
+        }
     }
 
     /**
@@ -89,15 +115,18 @@ public class MarkerDrawable extends StateDrawable implements Animatable {
      * @param endColor   Color used for popup indicator
      */
     public void setColors(int startColor, int endColor) {
-        mStartColor = startColor;
-        mEndColor = endColor;
+        final MarkerState state = getMarkerState();
+        if (state.mStartColor != startColor || state.mEndColor != endColor) {
+            setSharedState(new MarkerState(state, state.mTintStateList, state.mClosedStateSize, startColor, endColor));
+        }
     }
 
     @Override
     void doDraw(Canvas canvas, Paint paint) {
         if (!mPath.isEmpty()) {
             paint.setStyle(Paint.Style.FILL);
-            int color = blendColors(mStartColor, mEndColor, mCurrentScale);
+            final MarkerState state = getMarkerState();
+            int color = ColorMath.blendColors(state.mStartColor, state.mEndColor, mCurrentScale);
             paint.setColor(color);
             canvas.drawPath(mPath, paint);
         }
@@ -110,33 +139,49 @@ public class MarkerDrawable extends StateDrawable implements Animatable {
     @Override
     protected void onBoundsChange(Rect bounds) {
         super.onBoundsChange(bounds);
-        computePath(bounds);
+        invalidatePathCache();
     }
 
+    private void invalidatePathCache() {
+        for (int i = 0; i <= PATH_CACHE_STEPS; i++) {
+            mPathCacheValid[i] = false;
+        }
+        computePath(getBounds());
+    }
+
+    /**
+     * Picks the cached shape for the current scale, building it only the first time
+     */
     private void computePath(Rect bounds) {
-        final float currentScale = mCurrentScale;
-        final Path path = mPath;
+        final int step = Math.round(mCurrentScale * PATH_CACHE_STEPS);
+        Path path = mPathCache[step];
+        if (path == null) {
+            path = new Path();
+            mPathCache[step] = path;
+        }
+        if (!mPathCacheValid[step]) {
+            buildPath(bounds, step / (float) PATH_CACHE_STEPS, path);
+            mPathCacheValid[step] = true;
+        }
+        mPath = path;
+    }
+
+    private void buildPath(Rect bounds, float scale, Path path) {
         final RectF rect = mRect;
         final Matrix matrix = mMatrix;
+        final MarkerGeometry geometry = mGeometry;
 
         path.reset();
-        int totalSize = Math.min(bounds.width(), bounds.height());
-
-        float initial = mClosedStateSize;
-        float destination = totalSize;
-        float currentSize = initial + (destination - initial) * currentScale;
-
-        float halfSize = currentSize / 2f;
-        float inverseScale = 1f - currentScale;
-        float cornerSize = halfSize * inverseScale;
-        float[] corners = new float[]{halfSize, halfSize, halfSize, halfSize, halfSize, halfSize, cornerSize, cornerSize};
+        geometry.compute(bounds.width(), bounds.height(), bounds.bottom, getMarkerState().mClosedStateSize, mExternalOffset, scale);
+        float currentSize = geometry.getSize();
+        float halfSize = geometry.getHalfSize();
+        geometry.fillCorners(mCorners);
         rect.set(bounds.left, bounds.top, bounds.left + currentSize, bounds.top + currentSize);
-        path.addRoundRect(rect, corners, Path.Direction.CCW);
+        path.addRoundRect(rect, mCorners, Path.Direction.CCW);
         matrix.reset();
-        matrix.postRotate(-45, bounds.left + halfSize, bounds.top + halfSize);
-        matrix.postTranslate((bounds.width() - currentSize) / 2, 0);
-        float hDiff = (bounds.bottom - currentSize - mExternalOffset) * inverseScale;
-        matrix.postTranslate(0, hDiff);
+        matrix.postRotate(MarkerGeometry.ROTATION, bounds.left + halfSize, bounds.top + halfSize);
+        matrix.postTranslate(geometry.getTranslateX(), 0);
+        matrix.postTranslate(0, geometry.getTranslateY());
         path.transform(matrix);
     }
 
@@ -149,51 +194,54 @@ public class MarkerDrawable extends StateDrawable implements Animatable {
     }
 
     public void animateToPressed() {
-        unscheduleSelf(mUpdater);
+        final FrameScheduler scheduler = getFrameScheduler();
+        scheduler.remove(mUpdater);
         mReverse = false;
         if (mCurrentScale < 1) {
             mRunning = true;
             mAnimationInitialValue = mCurrentScale;
             float durationFactor = 1f - mCurrentScale;
             mDuration = (int) (ANIMATION_DURATION * durationFactor);
-            mStartTime = SystemClock.uptimeMillis();
-            scheduleSelf(mUpdater, mStartTime + FRAME_DURATION);
+            mStartTime = scheduler.now();
+            scheduler.add(mUpdater);
         } else {
             notifyFinishedToListener();
         }
     }
 
     public void animateToNormal() {
+        final FrameScheduler scheduler = getFrameScheduler();
         mReverse = true;
-        unscheduleSelf(mUpdater);
+        scheduler.remove(mUpdater);
         if (mCurrentScale > 0) {
             mRunning = true;
             mAnimationInitialValue = mCurrentScale;
             float durationFactor = 1f - mCurrentScale;
             mDuration = ANIMATION_DURATION - (int) (ANIMATION_DURATION * durationFactor);
-            mStartTime = SystemClock.uptimeMillis();
-            scheduleSelf(mUpdater, mStartTime + FRAME_DURATION);
+            mStartTime = scheduler.now();
+            scheduler.add(mUpdater);
         } else {
             notifyFinishedToListener();
         }
     }
 
-    private final Runnable mUpdater = new Runnable() {
+    private final FrameScheduler.FrameCallback mUpdater = new FrameScheduler.FrameCallback() {
 
         @Override
-        public void run() {
-
-            long currentTime = SystemClock.uptimeMillis();
-            long diff = currentTime - mStartTime;
+        public boolean onFrame(long frameTimeMillis) {
+            long diff = Math.max(0, frameTimeMillis - mStartTime);
             if (diff < mDuration) {
-                float interpolation = mInterpolator.getInterpolation((float) diff / (float) mDuration);
-                scheduleSelf(mUpdater, currentTime + FRAME_DURATION);
+                float interpolation = INTERPOLATOR.getInterpolation((float) diff / (float) mDuration);
                 updateAnimation(interpolation);
+                return true;
             } else {
-                unscheduleSelf(mUpdater);
+                //Unregister before notifying, the listener may start a new animation
+                final FrameScheduler scheduler = getFrameScheduler();
+                scheduler.remove(mUpdater);
                 mRunning = false;
                 updateAnimation(1f);
                 notifyFinishedToListener();
+                return scheduler.contains(mUpdater);
             }
         }
     };
@@ -219,7 +267,7 @@ public class MarkerDrawable extends StateDrawable implements Animatable {
 
     @Override
     public void stop() {
-        unscheduleSelf(mUpdater);
+        getFrameScheduler().remove(mUpdater);
     }
 
     @Override
@@ -227,16 +275,6 @@ public class MarkerDrawable extends StateDrawable implements Animatable {
         return mRunning;
     }
 
-    private static int blendColors(int color1, int color2, float factor) {
-        final float inverseFactor = 1f - factor;
-        float a = (Color.alpha(color1) * factor) + (Color.alpha(color2) * inverseFactor);
-        float r = (Color.red(color1) * factor) + (Color.red(color2) * inverseFactor);
-        float g = (Color.green(color1) * factor) + (Color.green(color2) * inverseFactor);
-        float b = (Color.blue(color1) * factor) + (Color.blue(color2) * inverseFactor);
-        return Color.argb((int) a, (int) r, (int) g, (int) b);
-    }
-
-
     /**
      * A listener interface to porpagate animation events
      * This is the "poor's man" AnimatorListener for this Drawable
@@ -246,4 +284,56 @@ public class MarkerDrawable extends StateDrawable implements Animatable {
 
         public void onOpeningComplete();
     }
+
+    static class MarkerState extends SharedState {
+        //size of the actual thumb drawable to use as circle state size
+        final float mClosedStateSize;
+        //colors for interpolation
+        final int mStartColor;//Color when the Marker is OPEN
+        final int mEndColor;//Color when the arker is CLOSED
+
+        MarkerState(@NonNull ColorStateList tintStateList, float closedStateSize, int startColor, int endColor) {
+            super(tintStateList);
+            mClosedStateSize = closedStateSize;
+            mStartColor = startColor;
+            mEndColor = endColor;
+        }
+
+        MarkerState(@NonNull MarkerState orig, @NonNull ColorStateList tintStateList, float closedStateSize, int startColor, int endColor) {
+            super(orig, tintStateList);
+            mClosedStateSize = closedStateSize;
+            mStartColor = startColor;
+            mEndColor = endColor;
+        }
+
+        @Override
+        SharedState copy(@NonNull ColorStateList tintStateList) {
+            return new MarkerState(this, tintStateList, mClosedStateSize, mStartColor, mEndColor);
+        }
+
+        @Override
+        public Drawable newDrawable() {
+            return new MarkerDrawable(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!super.equals(o)) {
+                return false;
+            }
+            MarkerState other = (MarkerState) o;
+            return mClosedStateSize == other.mClosedStateSize
+                    && mStartColor == other.mStartColor
+                    && mEndColor == other.mEndColor;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = super.hashCode();
+            result = 31 * result + Float.floatToIntBits(mClosedStateSize);
+            result = 31 * result + mStartColor;
+            result = 31 * result + mEndColor;
+            return result;
+        }
+    }
 }
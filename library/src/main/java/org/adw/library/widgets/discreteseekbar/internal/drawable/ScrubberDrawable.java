@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.drawable;
+
+import android.content.res.ColorStateList;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import androidx.annotation.NonNull;
+
+/**
+ * {@link org.adw.library.widgets.discreteseekbar.internal.drawable.StateDrawable} implementation
+ * to draw the selected segments of the track with a single {@link Canvas#drawLines(float[], int, int, Paint)} call.
+ * <p>
+ * Segments are given as offsets along the track, from an origin and in a direction (for RTL).
+ * The thickness and the cross axis position come from the bounds.
+ * </p>
+ *
+ * @hide
+ */
+public class ScrubberDrawable extends StateDrawable {
+    private boolean mVertical;
+    private int mOrigin;
+    private int mDirection = 1;
+    //Start and end offsets of every segment
+    private int[] mOffsets = new int[2];
+    private float[] mLines = new float[4];
+    private int mSegments = 1;
+
+    public ScrubberDrawable(@NonNull ColorStateList tintStateList) {
+        super(intern(new ScrubberState(tintStateList)));
+    }
+
+    ScrubberDrawable(@NonNull ScrubberState state) {
+        super(state);
+    }
+
+    public void setSegmentCount(int count) {
+        if (mOffsets.length < count * 2) {
+            mOffsets = new int[count * 2];
+            mLines = new float[count * 4];
+        }
+        mSegments = count;
+    }
+
+    public int getSegmentCount() {
+        return mSegments;
+    }
+
+    /**
+     * The start and end offsets of every segment, meant to be read only
+     */
+    public int[] getSegmentOffsets() {
+        return mOffsets;
+    }
+
+    /**
+     * Sets where offset 0 is along the track
+     *
+     * @param vertical  if the track runs vertically
+     * @param origin    the x (or y) of offset 0
+     * @param direction 1, or -1 if the offsets grow towards the left (or top)
+     */
+    public void setTrack(boolean vertical, int origin, int direction) {
+        mVertical = vertical;
+        mOrigin = origin;
+        mDirection = direction;
+        invalidateSelf();
+    }
+
+    public void setSegment(int index, int from, int to) {
+        mOffsets[index * 2] = from;
+        mOffsets[index * 2 + 1] = to;
+        invalidateSelf();
+    }
+
+    /**
+     * Gets the area covered by a segment
+     */
+    public void getSegmentBounds(int index, Rect out) {
+        final Rect bounds = getBounds();
+        int a = mOrigin + mDirection * mOffsets[index * 2];
+        int b = mOrigin + mDirection * mOffsets[index * 2 + 1];
+        if (mVertical) {
+            out.set(bounds.left, Math.min(a, b), bounds.right, Math.max(a, b));
+        } else {
+            out.set(Math.min(a, b), bounds.top, Math.max(a, b), bounds.bottom);
+        }
+    }
+
+    @Override
+    void doDraw(Canvas canvas, Paint paint) {
+        final Rect bounds = getBounds();
+        final int[] offsets = mOffsets;
+        final float[] lines = mLines;
+        float center = mVertical ? bounds.exactCenterX() : bounds.exactCenterY();
+        for (int i = 0; i < mSegments; i++) {
+            float a = mOrigin + mDirection * offsets[i * 2];
+            float b = mOrigin + mDirection * offsets[i * 2 + 1];
+            if (mVertical) {
+                lines[i * 4] = center;
+                lines[i * 4 + 1] = a;
+                lines[i * 4 + 2] = center;
+                lines[i * 4 + 3] = b;
+            } else {
+                lines[i * 4] = a;
+                lines[i * 4 + 1] = center;
+                lines[i * 4 + 2] = b;
+                lines[i * 4 + 3] = center;
+            }
+        }
+        //Butt caps so each line covers exactly its segment, as thick as the bounds
+        paint.setStrokeWidth(mVertical ? bounds.width() : bounds.height());
+        paint.setStrokeCap(Paint.Cap.BUTT);
+        canvas.drawLines(lines, 0, mSegments * 4, paint);
+    }
+
+    static class ScrubberState extends SharedState {
+        ScrubberState(@NonNull ColorStateList tintStateList) {
+            super(tintStateList);
+        }
+
+        ScrubberState(@NonNull ScrubberState orig, @NonNull ColorStateList tintStateList) {
+            super(orig, tintStateList);
+        }
+
+        @Override
+        SharedState copy(@NonNull ColorStateList tintStateList) {
+            return new ScrubberState(this, tintStateList);
+        }
+
+        @Override
+        public Drawable newDrawable() {
+            return new ScrubberDrawable(this);
+        }
+    }
+}
@@ -25,29 +25,74 @@ import android.graphics.PixelFormat;
 import android.graphics.drawable.Drawable;
 import androidx.annotation.NonNull;
 
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+import org.adw.library.widgets.discreteseekbar.internal.compat.FrameScheduler;
+
 /**
  * A drawable that changes it's Paint color depending on the Drawable State
  * <p>
  * Subclasses should implement {@link #doDraw(android.graphics.Canvas, android.graphics.Paint)}
  * </p>
+ * <p>
+ * The styling (colors, sizes and the Paint) lives in an immutable {@link SharedState}
+ * shared by every drawable styled the same way. Instances only keep their own state and animation values.
+ * </p>
  *
  * @hide
  */
 public abstract class StateDrawable extends Drawable {
-    private ColorStateList mTintStateList;
-    private final Paint mPaint;
+    //Every SharedState in use, so equally styled drawables end up with the same instance
+    private static final WeakHashMap<SharedState, WeakReference<SharedState>> sSharedStates = new WeakHashMap<SharedState, WeakReference<SharedState>>();
+
+    private SharedState mState;
     private int mCurrentColor;
     private int mAlpha = 255;
+    private FrameScheduler mFrameScheduler;
 
-    public StateDrawable(@NonNull ColorStateList tintStateList) {
+    StateDrawable(@NonNull SharedState state) {
         super();
-        setColorStateList(tintStateList);
-        mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        mState = state;
+        mCurrentColor = state.mTintStateList.getDefaultColor();
+    }
+
+    /**
+     * Returns the already shared instance equal to this state, or this state if there's none yet
+     */
+    @SuppressWarnings("unchecked")
+    static <S extends SharedState> S intern(S state) {
+        synchronized (sSharedStates) {
+            WeakReference<SharedState> ref = sSharedStates.get(state);
+            SharedState shared = ref != null ? ref.get() : null;
+            if (shared == null) {
+                sSharedStates.put(state, new WeakReference<SharedState>(state));
+                shared = state;
+            }
+            return (S) shared;
+        }
+    }
+
+    SharedState getSharedState() {
+        return mState;
+    }
+
+    /**
+     * States are never modified once shared: changing the styling means
+     * switching to another (interned) state
+     */
+    void setSharedState(@NonNull SharedState state) {
+        mState = intern(state);
+    }
+
+    @Override
+    public ConstantState getConstantState() {
+        return mState;
     }
 
     @Override
     public boolean isStateful() {
-        return (mTintStateList.isStateful()) || super.isStateful();
+        return (mState.mTintStateList.isStateful()) || super.isStateful();
     }
 
     @Override
@@ -63,7 +108,7 @@ public abstract class StateDrawable extends Drawable {
     }
 
     private boolean updateTint(int[] state) {
-        final int color = mTintStateList.getColorForState(state, mCurrentColor);
+        final int color = mState.mTintStateList.getColorForState(state, mCurrentColor);
         if (color != mCurrentColor) {
             mCurrentColor = color;
             //We've changed states
@@ -75,14 +120,18 @@ public abstract class StateDrawable extends Drawable {
 
     @Override
     public void draw(Canvas canvas) {
-        mPaint.setColor(mCurrentColor);
+        //The Paint is shared, so color and alpha are set again on every draw
+        final Paint paint = mState.getPaint();
+        paint.setColor(mCurrentColor);
         int alpha = modulateAlpha(Color.alpha(mCurrentColor));
-        mPaint.setAlpha(alpha);
-        doDraw(canvas, mPaint);
+        paint.setAlpha(alpha);
+        doDraw(canvas, paint);
     }
 
     public void setColorStateList(@NonNull ColorStateList tintStateList) {
-        mTintStateList = tintStateList;
+        if (tintStateList != mState.mTintStateList) {
+            setSharedState(mState.copy(tintStateList));
+        }
         mCurrentColor = tintStateList.getDefaultColor();
     }
 
@@ -95,6 +144,25 @@ public abstract class StateDrawable extends Drawable {
      */
     abstract void doDraw(Canvas canvas, Paint paint);
 
+    /**
+     * Sets the {@link FrameScheduler} used to run this drawable animations.
+     * This should be set before any animation starts.
+     */
+    public void setFrameScheduler(@NonNull FrameScheduler scheduler) {
+        mFrameScheduler = scheduler;
+    }
+
+    /**
+     * Subclasses should use this to run their animations.
+     * If none was set, this drawable will create its own
+     */
+    FrameScheduler getFrameScheduler() {
+        if (mFrameScheduler == null) {
+            mFrameScheduler = FrameScheduler.create();
+        }
+        return mFrameScheduler;
+    }
+
     @Override
     public void setAlpha(int alpha) {
         mAlpha = alpha;
@@ -113,7 +181,67 @@ public abstract class StateDrawable extends Drawable {
 
     @Override
     public void setColorFilter(ColorFilter cf) {
-        mPaint.setColorFilter(cf);
+        if (cf != mState.mColorFilter) {
+            SharedState state = mState.copy(mState.mTintStateList);
+            state.mColorFilter = cf;
+            setSharedState(state);
+        }
+    }
+
+    /**
+     * The immutable styling of a {@link StateDrawable}.
+     * <p>
+     * Subclasses add their own style values and must include them in {@link #equals(Object)}
+     * and {@link #hashCode()}. Those should never change after the state is passed to {@link #intern(SharedState)}
+     * </p>
+     */
+    abstract static class SharedState extends ConstantState {
+        final ColorStateList mTintStateList;
+        ColorFilter mColorFilter;
+        private Paint mPaint;
+
+        SharedState(@NonNull ColorStateList tintStateList) {
+            mTintStateList = tintStateList;
+        }
+
+        SharedState(@NonNull SharedState orig, @NonNull ColorStateList tintStateList) {
+            mTintStateList = tintStateList;
+            mColorFilter = orig.mColorFilter;
+        }
+
+        /**
+         * Returns a new, not yet shared, copy of this state with the given colors
+         */
+        abstract SharedState copy(@NonNull ColorStateList tintStateList);
+
+        //Created lazily so states built just for an intern() lookup stay cheap
+        Paint getPaint() {
+            if (mPaint == null) {
+                mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+                mPaint.setColorFilter(mColorFilter);
+            }
+            return mPaint;
+        }
+
+        @Override
+        public int getChangingConfigurations() {
+            return 0;
+        }
+
+        //ColorStateLists don't implement equals, but Resources already hands out the same instance
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || o.getClass() != getClass()) {
+                return false;
+            }
+            SharedState other = (SharedState) o;
+            return mTintStateList == other.mTintStateList && mColorFilter == other.mColorFilter;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(mTintStateList) + System.identityHashCode(mColorFilter);
+        }
     }
 
 }
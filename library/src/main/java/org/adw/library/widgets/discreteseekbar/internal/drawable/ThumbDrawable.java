@@ -21,9 +21,11 @@ import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.Rect;
 import android.graphics.drawable.Animatable;
-import android.os.SystemClock;
+import android.graphics.drawable.Drawable;
 import androidx.annotation.NonNull;
 
+import org.adw.library.widgets.discreteseekbar.internal.compat.FrameScheduler;
+
 /**
  * <h1>HACK</h1>
  * <p>
@@ -42,52 +44,62 @@ import androidx.annotation.NonNull;
 public class ThumbDrawable extends StateDrawable implements Animatable {
     //The current size for this drawable. Must be converted to real DPs
     public static final int DEFAULT_SIZE_DP = 12;
-    private final int mSize;
+    //Delay to stop drawing the thumb once pressed
+    private static final int OPEN_DELAY = 100;
     private boolean mOpen;
     private boolean mRunning;
 
     public ThumbDrawable(@NonNull ColorStateList tintStateList, int size) {
-        super(tintStateList);
-        mSize = size;
+        super(intern(new ThumbState(tintStateList, size)));
+    }
+
+    ThumbDrawable(@NonNull ThumbState state) {
+        super(state);
+    }
+
+    private int getSize() {
+        return ((ThumbState) getSharedState()).mSize;
     }
 
     @Override
     public int getIntrinsicWidth() {
-        return mSize;
+        return getSize();
     }
 
     @Override
     public int getIntrinsicHeight() {
-        return mSize;
+        return getSize();
     }
 
     @Override
     public void doDraw(Canvas canvas, Paint paint) {
         if (!mOpen) {
             Rect bounds = getBounds();
-            float radius = (mSize / 2);
+            float radius = (getSize() / 2);
             canvas.drawCircle(bounds.centerX(), bounds.centerY(), radius, paint);
         }
     }
 
     public void animateToPressed() {
-        scheduleSelf(opener, SystemClock.uptimeMillis() + 100);
+        //No frames are needed until the delay expires
+        getFrameScheduler().addDelayed(opener, OPEN_DELAY);
         mRunning = true;
     }
 
     public void animateToNormal() {
         mOpen = false;
         mRunning = false;
-        unscheduleSelf(opener);
+        getFrameScheduler().remove(opener);
         invalidateSelf();
     }
 
-    private Runnable opener = new Runnable() {
+    private FrameScheduler.FrameCallback opener = new FrameScheduler.FrameCallback() {
         @Override
-        public void run() {
+        public boolean onFrame(long frameTimeMillis) {
             mOpen = true;
             invalidateSelf();
             mRunning = false;
+            return false;
         }
     };
 
@@ -105,4 +117,38 @@ public class ThumbDrawable extends StateDrawable implements Animatable {
     public boolean isRunning() {
         return mRunning;
     }
+
+    static class ThumbState extends SharedState {
+        final int mSize;
+
+        ThumbState(@NonNull ColorStateList tintStateList, int size) {
+            super(tintStateList);
+            mSize = size;
+        }
+
+        ThumbState(@NonNull ThumbState orig, @NonNull ColorStateList tintStateList) {
+            super(orig, tintStateList);
+            mSize = orig.mSize;
+        }
+
+        @Override
+        SharedState copy(@NonNull ColorStateList tintStateList) {
+            return new ThumbState(this, tintStateList);
+        }
+
+        @Override
+        public Drawable newDrawable() {
+            return new ThumbDrawable(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return super.equals(o) && mSize == ((ThumbState) o).mSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + mSize;
+        }
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.drawable;
+
+import android.content.res.ColorStateList;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import androidx.annotation.NonNull;
+
+/**
+ * {@link org.adw.library.widgets.discreteseekbar.internal.drawable.StateDrawable} implementation
+ * to draw a run of round tick marks with a single {@link Canvas#drawPoints(float[], int, int, Paint)} call.
+ * <p>
+ * The points array is owned (and filled) by someone else and can be shared between several instances,
+ * each one drawing its own run.
+ * </p>
+ *
+ * @hide
+ */
+public class TickMarkDrawable extends StateDrawable {
+    private float[] mPoints;
+    private int mFirst;
+    private int mCount;
+
+    public TickMarkDrawable(@NonNull ColorStateList tintStateList, int size) {
+        super(intern(new TickMarkState(tintStateList, size)));
+    }
+
+    TickMarkDrawable(@NonNull TickMarkState state) {
+        super(state);
+    }
+
+    /**
+     * Sets which tick marks to draw
+     *
+     * @param points x,y pairs for every tick mark
+     * @param first  index of the first tick mark to draw
+     * @param count  how many tick marks to draw
+     */
+    public void setPoints(float[] points, int first, int count) {
+        mPoints = points;
+        mFirst = first;
+        mCount = count;
+    }
+
+    public int getSize() {
+        return ((TickMarkState) getSharedState()).mSize;
+    }
+
+    public void setSize(int size) {
+        final TickMarkState state = (TickMarkState) getSharedState();
+        if (state.mSize != size) {
+            setSharedState(new TickMarkState(state, state.mTintStateList, size));
+        }
+    }
+
+    @Override
+    void doDraw(Canvas canvas, Paint paint) {
+        if (mCount > 0) {
+            //The Paint is only shared with other tick marks of the same size
+            paint.setStrokeWidth(((TickMarkState) getSharedState()).mSize);
+            paint.setStrokeCap(Paint.Cap.ROUND);
+            canvas.drawPoints(mPoints, mFirst * 2, mCount * 2, paint);
+        }
+    }
+
+    static class TickMarkState extends SharedState {
+        final int mSize;
+
+        TickMarkState(@NonNull ColorStateList tintStateList, int size) {
+            super(tintStateList);
+            mSize = size;
+        }
+
+        TickMarkState(@NonNull TickMarkState orig, @NonNull ColorStateList tintStateList, int size) {
+            super(orig, tintStateList);
+            mSize = size;
+        }
+
+        @Override
+        SharedState copy(@NonNull ColorStateList tintStateList) {
+            return new TickMarkState(this, tintStateList, mSize);
+        }
+
+        @Override
+        public Drawable newDrawable() {
+            return new TickMarkDrawable(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return super.equals(o) && mSize == ((TickMarkState) o).mSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * super.hashCode() + mSize;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import android.content.res.ColorStateList;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
 import androidx.annotation.NonNull;
 
 /**
@@ -32,7 +33,11 @@ public class TrackOvalDrawable extends StateDrawable {
     private RectF mRectF = new RectF();
 
     public TrackOvalDrawable(@NonNull ColorStateList tintStateList) {
-        super(tintStateList);
+        super(intern(new TrackOvalState(tintStateList)));
+    }
+
+    TrackOvalDrawable(@NonNull TrackOvalState state) {
+        super(state);
     }
 
     @Override
@@ -41,4 +46,24 @@ public class TrackOvalDrawable extends StateDrawable {
         canvas.drawOval(mRectF, paint);
     }
 
+    static class TrackOvalState extends SharedState {
+        TrackOvalState(@NonNull ColorStateList tintStateList) {
+            super(tintStateList);
+        }
+
+        TrackOvalState(@NonNull TrackOvalState orig, @NonNull ColorStateList tintStateList) {
+            super(orig, tintStateList);
+        }
+
+        @Override
+        SharedState copy(@NonNull ColorStateList tintStateList) {
+            return new TrackOvalState(this, tintStateList);
+        }
+
+        @Override
+        public Drawable newDrawable() {
+            return new TrackOvalDrawable(this);
+        }
+    }
+
 }
@@ -19,6 +19,7 @@ package org.adw.library.widgets.discreteseekbar.internal.drawable;
 import android.content.res.ColorStateList;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
 import androidx.annotation.NonNull;
 
 /**
@@ -29,7 +30,11 @@ import androidx.annotation.NonNull;
  */
 public class TrackRectDrawable extends StateDrawable {
     public TrackRectDrawable(@NonNull ColorStateList tintStateList) {
-        super(tintStateList);
+        super(intern(new TrackRectState(tintStateList)));
+    }
+
+    TrackRectDrawable(@NonNull TrackRectState state) {
+        super(state);
     }
 
     @Override
@@ -37,4 +42,24 @@ public class TrackRectDrawable extends StateDrawable {
         canvas.drawRect(getBounds(), paint);
     }
 
+    static class TrackRectState extends SharedState {
+        TrackRectState(@NonNull ColorStateList tintStateList) {
+            super(tintStateList);
+        }
+
+        TrackRectState(@NonNull TrackRectState orig, @NonNull ColorStateList tintStateList) {
+            super(orig, tintStateList);
+        }
+
+        @Override
+        SharedState copy(@NonNull ColorStateList tintStateList) {
+            return new TrackRectState(this, tintStateList);
+        }
+
+        @Override
+        public Drawable newDrawable() {
+            return new TrackRectDrawable(this);
+        }
+    }
+
 }
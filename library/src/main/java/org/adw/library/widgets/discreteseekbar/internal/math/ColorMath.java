@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.math;
+
+/**
+ * Plain java color operations, same results as using {@link android.graphics.Color}
+ *
+ * @hide
+ */
+public class ColorMath {
+
+    private ColorMath() {
+    }
+
+    /**
+     * Blends two ARGB colors
+     *
+     * @param color1 The color for factor=1
+     * @param color2 The color for factor=0
+     * @param factor The blend factor, 0 to 1
+     */
+    public static int blendColors(int color1, int color2, float factor) {
+        final float inverseFactor = 1f - factor;
+        float a = ((color1 >>> 24) * factor) + ((color2 >>> 24) * inverseFactor);
+        float r = (((color1 >> 16) & 0xFF) * factor) + (((color2 >> 16) & 0xFF) * inverseFactor);
+        float g = (((color1 >> 8) & 0xFF) * factor) + (((color2 >> 8) & 0xFF) * inverseFactor);
+        float b = ((color1 & 0xFF) * factor) + ((color2 & 0xFF) * inverseFactor);
+        return ((int) a << 24) | ((int) r << 16) | ((int) g << 8) | (int) b;
+    }
+}
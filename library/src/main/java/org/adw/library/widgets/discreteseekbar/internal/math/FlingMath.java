@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.math;
+
+/**
+ * Exponential decay model used to carry the thumb after a fling.
+ * <p>
+ * The speed decays as <code>v(t) = v0 * e^(-friction * t)</code>, so the distance travelled is
+ * <code>v0 / friction * (1 - e^(-friction * t))</code> and the total distance is just <code>v0 / friction</code>.
+ * That makes the final position known (and snappable to a discrete value) right when the fling starts.
+ * </p>
+ *
+ * @hide
+ */
+public class FlingMath {
+    /**
+     * Default friction, in 1/s. A 3000px/s fling travels 600px.
+     */
+    public static final float DEFAULT_FRICTION = 5f;
+    /**
+     * The fling is considered finished when less than this (in px) is left to travel
+     */
+    private static final float STOP_DISTANCE = 0.5f;
+    private static final int MAX_DURATION = 1200;
+
+    private FlingMath() {
+    }
+
+    /**
+     * @param velocity The initial velocity in px/s
+     * @param friction The friction in 1/s
+     * @return the total (signed) distance in px the fling will travel
+     */
+    public static float projectDistance(float velocity, float friction) {
+        return velocity / friction;
+    }
+
+    /**
+     * @param distance The distance to travel in px
+     * @param friction The friction in 1/s
+     * @return the time in ms until less than {@link #STOP_DISTANCE} px are left to travel
+     */
+    public static int getDuration(float distance, float friction) {
+        float absDistance = Math.abs(distance);
+        if (absDistance <= STOP_DISTANCE) {
+            return 0;
+        }
+        double seconds = Math.log(absDistance / STOP_DISTANCE) / friction;
+        return (int) Math.min(MAX_DURATION, seconds * 1000);
+    }
+
+    /**
+     * The fraction (0 to 1) of the distance travelled at a given fraction of the duration.
+     * <p>
+     * Normalized so it reaches exactly 1 at the end, even if the duration was capped.
+     * </p>
+     *
+     * @param input      The fraction (0 to 1) of the duration
+     * @param friction   The friction in 1/s
+     * @param durationMs The duration of the fling in ms
+     */
+    public static float getInterpolation(float input, float friction, int durationMs) {
+        double total = friction * durationMs / 1000d;
+        if (total <= 0) {
+            return 1f;
+        }
+        return (float) ((1 - Math.exp(-total * input)) / (1 - Math.exp(-total)));
+    }
+}
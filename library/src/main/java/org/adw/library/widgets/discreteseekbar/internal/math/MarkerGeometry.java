@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.math;
+
+/**
+ * The math behind the {@link org.adw.library.widgets.discreteseekbar.internal.drawable.MarkerDrawable} shape.
+ * <p>
+ * The marker is a RoundRect with one un-rounded corner, rotated -45 degrees around its center
+ * and then translated into place. This computes those values for a given animation scale
+ * without touching any {@link android.graphics.Path}, so it can be benchmarked on the JVM.
+ * </p>
+ *
+ * @hide
+ */
+public class MarkerGeometry {
+    public static final float ROTATION = -45;
+
+    private float mSize;
+    private float mHalfSize;
+    private float mCornerSize;
+    private float mTranslateX;
+    private float mTranslateY;
+
+    /**
+     * @param width          The bounds width
+     * @param height         The bounds height
+     * @param bottom         The bounds bottom
+     * @param closedSize     The size of the marker when closed (circle state)
+     * @param externalOffset The extra offset between the circle state and the marker state
+     * @param scale          The animation scale, 0 (closed) to 1 (open)
+     */
+    public void compute(int width, int height, int bottom, float closedSize, int externalOffset, float scale) {
+        int totalSize = Math.min(width, height);
+
+        float initial = closedSize;
+        float destination = totalSize;
+        float currentSize = initial + (destination - initial) * scale;
+
+        float halfSize = currentSize / 2f;
+        float inverseScale = 1f - scale;
+        mSize = currentSize;
+        mHalfSize = halfSize;
+        mCornerSize = halfSize * inverseScale;
+        mTranslateX = (width - currentSize) / 2;
+        mTranslateY = (bottom - currentSize - externalOffset) * inverseScale;
+    }
+
+    /**
+     * The side of the (unrotated) RoundRect
+     */
+    public float getSize() {
+        return mSize;
+    }
+
+    /**
+     * The radius for the rounded corners
+     */
+    public float getHalfSize() {
+        return mHalfSize;
+    }
+
+    /**
+     * The radius for the "pointy" corner
+     */
+    public float getCornerSize() {
+        return mCornerSize;
+    }
+
+    public float getTranslateX() {
+        return mTranslateX;
+    }
+
+    public float getTranslateY() {
+        return mTranslateY;
+    }
+
+    /**
+     * Fills the RoundRect radii array (8 floats, same layout as {@link android.graphics.Path#addRoundRect})
+     */
+    public void fillCorners(float[] corners) {
+        float halfSize = mHalfSize;
+        float cornerSize = mCornerSize;
+        corners[0] = halfSize;
+        corners[1] = halfSize;
+        corners[2] = halfSize;
+        corners[3] = halfSize;
+        corners[4] = halfSize;
+        corners[5] = halfSize;
+        corners[6] = cornerSize;
+        corners[7] = cornerSize;
+    }
+}
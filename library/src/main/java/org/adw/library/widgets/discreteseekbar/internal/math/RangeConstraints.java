@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.math;
+
+/**
+ * Keeps the thumbs of a range apart: a minimum gap between neighbours, a maximum span from the first
+ * to the last one, and what happens when a moving thumb runs into another one.
+ * <p>
+ * Every change is resolved in a single step for all the thumbs, so a fast drag ends up as close to
+ * the finger as the constraints allow instead of being rejected.
+ * </p>
+ * <p>
+ * Values are sorted and, when too constrained for the range (like a gap bigger than the whole range),
+ * the gap and span are relaxed to the closest ones that fit.
+ * </p>
+ *
+ * @hide
+ */
+public class RangeConstraints {
+    /**
+     * A thumb stops at the gap from its neighbours
+     */
+    public static final int BLOCK = 0;
+    /**
+     * A thumb pushes its neighbours, and drags the other end along if the span gets too wide
+     */
+    public static final int PUSH = 1;
+    /**
+     * A thumb can pass its neighbours and take their place
+     */
+    public static final int SWAP = 2;
+
+    private long mMinGap = 0;
+    private long mMaxSpan = Long.MAX_VALUE;
+    private int mBehavior = BLOCK;
+    private long[] mScratch = new long[0];
+
+    public void setMinGap(long minGap) {
+        mMinGap = Math.max(0, minGap);
+    }
+
+    public long getMinGap() {
+        return mMinGap;
+    }
+
+    /**
+     * @param maxSpan the maximum distance from the first to the last thumb, or {@link Long#MAX_VALUE} for none
+     */
+    public void setMaxSpan(long maxSpan) {
+        mMaxSpan = Math.max(0, maxSpan);
+    }
+
+    public long getMaxSpan() {
+        return mMaxSpan;
+    }
+
+    public void setBehavior(int behavior) {
+        if (behavior != BLOCK && behavior != PUSH && behavior != SWAP) {
+            throw new IllegalArgumentException("Unknown behavior: " + behavior);
+        }
+        mBehavior = behavior;
+    }
+
+    public int getBehavior() {
+        return mBehavior;
+    }
+
+    /**
+     * Moves a thumb towards a wanted value and fixes the others so every constraint still holds
+     *
+     * @param values The values of every thumb, sorted and valid. They're modified in place
+     * @param index  The thumb to move
+     * @param wanted The wanted value, within [min, max]
+     * @return the index of the moved thumb afterwards, only different from index when swapping
+     */
+    public int resolve(long[] values, int index, long wanted, long min, long max) {
+        final int count = values.length;
+        if (count == 1) {
+            values[0] = TrackMath.clamp(wanted, min, max);
+            return 0;
+        }
+        final long gap = getGap(count, min, max);
+        final long span = getSpan(count, gap);
+        switch (mBehavior) {
+            case PUSH:
+                push(values, index, wanted, min, max, gap, span);
+                return index;
+            case SWAP:
+                return swap(values, index, wanted, min, max, gap, span);
+            default:
+                block(values, index, wanted, min, max, gap, span);
+                return index;
+        }
+    }
+
+    /**
+     * The lowest value a thumb can be moved to: up to its neighbours when blocking,
+     * leaving room for the ones below when pushing, and min when swapping
+     */
+    public long getLowerLimit(long[] values, int index, long min, long max) {
+        final int count = values.length;
+        final long gap = getGap(count, min, max);
+        switch (mBehavior) {
+            case PUSH:
+                return min + index * gap;
+            case SWAP:
+                return min;
+            default:
+                return lowerLimit(values, index, min, gap, getSpan(count, gap));
+        }
+    }
+
+    /**
+     * The highest value a thumb can be moved to: up to its neighbours when blocking,
+     * leaving room for the ones above when pushing, and max when swapping
+     */
+    public long getUpperLimit(long[] values, int index, long min, long max) {
+        final int count = values.length;
+        final long gap = getGap(count, min, max);
+        switch (mBehavior) {
+            case PUSH:
+                return max - (count - 1 - index) * gap;
+            case SWAP:
+                return max;
+            default:
+                return upperLimit(values, index, max, gap, getSpan(count, gap));
+        }
+    }
+
+    /**
+     * Fixes sorted values that break the gap or the span. Lower thumbs win: the upper ones are moved
+     */
+    public void normalize(long[] values, long min, long max) {
+        final int count = values.length;
+        final int last = count - 1;
+        if (count < 2) {
+            return;
+        }
+        final long gap = getGap(count, min, max);
+        final long span = getSpan(count, gap);
+        //Leave room for the gaps of the ones above
+        values[0] = TrackMath.clamp(values[0], min, max - last * gap);
+        for (int i = 1; i <= last; i++) {
+            values[i] = TrackMath.clamp(values[i], values[i - 1] + gap, max - (last - i) * gap);
+        }
+        if (values[last] - values[0] > span) {
+            values[last] = values[0] + span;
+            for (int i = last - 1; i > 0; i--) {
+                values[i] = Math.min(values[i], values[i + 1] - gap);
+            }
+        }
+    }
+
+    private long getGap(int count, long min, long max) {
+        if (count < 2) {
+            return 0;
+        }
+        return Math.min(mMinGap, (max - min) / (count - 1));
+    }
+
+    private long getSpan(int count, long gap) {
+        return Math.max(mMaxSpan, gap * (count - 1));
+    }
+
+    private static long lowerLimit(long[] values, int index, long min, long gap, long span) {
+        final int last = values.length - 1;
+        long low = index > 0 ? add(values[index - 1], gap) : min;
+        if (index == 0 && last > 0) {
+            low = Math.max(low, add(values[last], -span));
+        }
+        return low;
+    }
+
+    private static long upperLimit(long[] values, int index, long max, long gap, long span) {
+        final int last = values.length - 1;
+        long high = index < last ? add(values[index + 1], -gap) : max;
+        if (index == last && last > 0) {
+            high = Math.min(high, add(values[0], span));
+        }
+        return high;
+    }
+
+    private static void block(long[] values, int index, long wanted, long min, long max, long gap, long span) {
+        long low = lowerLimit(values, index, min, gap, span);
+        long high = upperLimit(values, index, max, gap, span);
+        //No room at all: stay
+        if (low <= high) {
+            values[index] = TrackMath.clamp(wanted, low, high);
+        }
+    }
+
+    private static void push(long[] values, int index, long wanted, long min, long max, long gap, long span) {
+        final int last = values.length - 1;
+        final long previous = values[index];
+        //Leave room to push the others up to the ends
+        final long value = TrackMath.clamp(wanted, min + index * gap, max - (last - index) * gap);
+        values[index] = value;
+        for (int i = index + 1; i <= last; i++) {
+            if (values[i] - values[i - 1] < gap) {
+                values[i] = values[i - 1] + gap;
+            }
+        }
+        for (int i = index - 1; i >= 0; i--) {
+            if (values[i + 1] - values[i] < gap) {
+                values[i] = values[i + 1] - gap;
+            }
+        }
+        //Too wide: drag the other end along
+        if (values[last] - values[0] > span) {
+            if (value > previous) {
+                values[0] = values[last] - span;
+                for (int i = 1; i < index; i++) {
+                    if (values[i] - values[i - 1] < gap) {
+                        values[i] = values[i - 1] + gap;
+                    }
+                }
+            } else {
+                values[last] = values[0] + span;
+                for (int i = last - 1; i > index; i--) {
+                    if (values[i + 1] - values[i] < gap) {
+                        values[i] = values[i + 1] - gap;
+                    }
+                }
+            }
+        }
+    }
+
+    private int swap(long[] values, int index, long wanted, long min, long max, long gap, long span) {
+        final int count = values.length;
+        final int target = findSwapTarget(values, index, wanted);
+        if (target == index) {
+            block(values, index, wanted, min, max, gap, span);
+            return index;
+        }
+        //Try it on a copy, with the thumbs in between shifted one place
+        if (mScratch.length != count) {
+            mScratch = new long[count];
+        }
+        final long[] moved = mScratch;
+        System.arraycopy(values, 0, moved, 0, count);
+        if (target > index) {
+            System.arraycopy(moved, index + 1, moved, index, target - index);
+        } else {
+            System.arraycopy(moved, target, moved, target + 1, index - target);
+        }
+        long low = lowerLimit(moved, target, min, gap, span);
+        long high = upperLimit(moved, target, max, gap, span);
+        if (low > high) {
+            //No room on the other side
+            block(values, index, wanted, min, max, gap, span);
+            return index;
+        }
+        moved[target] = TrackMath.clamp(wanted, low, high);
+        System.arraycopy(moved, 0, values, 0, count);
+        return target;
+    }
+
+    /**
+     * Binary search for the place of the wanted value among the other thumbs. Ties don't swap
+     */
+    private static int findSwapTarget(long[] values, int index, long wanted) {
+        if (wanted > values[index]) {
+            //Last thumb above with a value lower than the wanted one
+            int low = index + 1;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] < wanted) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low - 1;
+        } else if (wanted < values[index]) {
+            //First thumb below with a value bigger than the wanted one
+            int low = 0;
+            int high = index;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] > wanted) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+        return index;
+    }
+
+    /**
+     * Addition saturated to the long range
+     */
+    private static long add(long a, long b) {
+        long result = a + b;
+        if (((a ^ result) & (b ^ result)) < 0) {
+            return a < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.math;
+
+/**
+ * Plain java math to map values to positions along the track and back.
+ * <p>
+ * Kept apart from the {@link android.view.View} so it can be benchmarked on the JVM.
+ * </p>
+ * <p>
+ * Values are longs and the mapping is exact (rounded to the nearest pixel or value) for any range
+ * whose length fits in a long: no float is involved, so wide ranges don't lose precision.
+ * </p>
+ *
+ * @hide
+ */
+public class TrackMath {
+    private static final long LOW_MASK = 0xffffffffL;
+
+    private TrackMath() {
+    }
+
+    /**
+     * Computes the offset (in pixels) from the track start for a given value
+     *
+     * @param value     The value
+     * @param min       The minimum value
+     * @param max       The maximum value
+     * @param available The available track length in pixels
+     * @return the offset in pixels
+     */
+    public static int valueToPosition(long value, long min, long max, int available) {
+        if (max <= min || available <= 0) {
+            return 0;
+        }
+        return (int) mulDiv(value - min, available, max - min);
+    }
+
+    /**
+     * Computes the value for a given offset (in pixels) from the track start.
+     *
+     * @param position  The offset in pixels. Must be already clamped to [0, available]
+     * @param available The available track length in pixels
+     * @param min       The minimum value
+     * @param max       The maximum value
+     * @param mirror    true if the track runs backwards (RTL)
+     * @return the value
+     */
+    public static long positionToValue(int position, int available, long min, long max, boolean mirror) {
+        if (max <= min || available <= 0) {
+            return min;
+        }
+        if (mirror) {
+            position = available - position;
+        }
+        return min + mulDiv(max - min, position, available);
+    }
+
+    /**
+     * Computes the value at a given fraction (0 to 1) of the way from start to end,
+     * returning exactly end for a fraction of 1
+     */
+    public static long interpolate(long start, long end, float fraction) {
+        if (fraction >= 1f) {
+            return end;
+        }
+        return start + Math.round((double) fraction * (end - start));
+    }
+
+    /**
+     * Computes <code>a * b / c</code> rounded to the nearest integer (halves away from zero) without overflowing
+     * the intermediate product.
+     * <p>
+     * The cost is constant: a plain multiplication when the product fits in 63 bits,
+     * a 128 bit multiplication and a 64 step division otherwise.
+     * </p>
+     *
+     * @param a any value
+     * @param b any value
+     * @param c a positive value, the result must fit in a long
+     */
+    public static long mulDiv(long a, long b, long c) {
+        if ((a | b) >= 0) {
+            return mulDivUnsigned(a, b, c);
+        }
+        //Negating Long.MIN_VALUE gives itself, which is still the right magnitude as an unsigned value
+        long magnitude = mulDivUnsigned(a < 0 ? -a : a, b < 0 ? -b : b, c);
+        return (a < 0) != (b < 0) ? -magnitude : magnitude;
+    }
+
+    /**
+     * {@link #mulDiv(long, long, long)} with a and b taken as unsigned values
+     */
+    private static long mulDivUnsigned(long a, long b, long c) {
+        final long half = c >>> 1;
+        if (((a | b) >>> 31) == 0) {
+            //Both fit in 31 bits, so the product fits in 62 and adding half can't overflow
+            return (a * b + half) / c;
+        }
+        //128 bit product as two unsigned halves
+        long a0 = a & LOW_MASK;
+        long a1 = a >>> 32;
+        long b0 = b & LOW_MASK;
+        long b1 = b >>> 32;
+        long p00 = a0 * b0;
+        long p01 = a0 * b1;
+        long p10 = a1 * b0;
+        long mid = (p00 >>> 32) + (p01 & LOW_MASK) + (p10 & LOW_MASK);
+        long high = a1 * b1 + (p01 >>> 32) + (p10 >>> 32) + (mid >>> 32);
+        long low = (mid << 32) | (p00 & LOW_MASK);
+        //Add half for the rounding, with carry
+        long rounded = low + half;
+        if (unsignedLess(rounded, low)) {
+            high++;
+        }
+        low = rounded;
+        //Restoring division. The remainder always stays below c
+        long remainder = high;
+        long quotient = 0;
+        for (int i = 63; i >= 0; i--) {
+            boolean overflow = remainder < 0;
+            remainder = (remainder << 1) | ((low >>> i) & 1);
+            quotient <<= 1;
+            if (overflow || !unsignedLess(remainder, c)) {
+                remainder -= c;
+                quotient |= 1;
+            }
+        }
+        return quotient;
+    }
+
+    private static boolean unsignedLess(long x, long y) {
+        return (x ^ Long.MIN_VALUE) < (y ^ Long.MIN_VALUE);
+    }
+
+    public static int clamp(int value, int min, int max) {
+        if (value < min) {
+            return min;
+        } else if (value > max) {
+            return max;
+        }
+        return value;
+    }
+
+    public static long clamp(long value, long min, long max) {
+        if (value < min) {
+            return min;
+        } else if (value > max) {
+            return max;
+        }
+        return value;
+    }
+
+    /**
+     * Fixes the max of a range after setting its min: the max is moved so it stays above the min
+     * and the range length (<code>max - min</code>) fits in a long.
+     *
+     * @param min the min, lower than {@link Long#MAX_VALUE}
+     * @return the new max
+     */
+    public static long fitMax(long min, long max) {
+        //min + Long.MAX_VALUE overflows for any positive min
+        long highest = min <= 0 ? min + Long.MAX_VALUE : Long.MAX_VALUE;
+        return clamp(max, min + 1, highest);
+    }
+
+    /**
+     * Fixes the min of a range after setting its max: the min is moved so it stays below the max
+     * and the range length (<code>max - min</code>) fits in a long.
+     *
+     * @param max the max, greater than {@link Long#MIN_VALUE}
+     * @return the new min
+     */
+    public static long fitMin(long min, long max) {
+        //max - Long.MAX_VALUE overflows for any max below -1
+        long lowest = max >= -1 ? max - Long.MAX_VALUE : Long.MIN_VALUE;
+        return clamp(min, lowest, max - 1);
+    }
+
+    /**
+     * Casts to int, saturating values out of the int range
+     */
+    public static int toInt(long value) {
+        return (int) clamp(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.math;
+
+/**
+ * Tracks the velocity of a pointer along one axis.
+ * <p>
+ * Samples are kept in a fixed size ring of primitives, so adding them never allocates
+ * (unlike feeding every {@link android.view.MotionEvent} to a {@link android.view.VelocityTracker}).
+ * The velocity is the slope of a least squares line fitted to the samples of the last {@link #HORIZON} ms,
+ * similar to what the framework does.
+ * </p>
+ *
+ * @hide
+ */
+public class VelocityRing {
+    /**
+     * Only samples this recent (in ms) from the newest one are used
+     */
+    public static final int HORIZON = 100;
+    /**
+     * If there's a gap this big (in ms) between samples the pointer is considered stopped
+     */
+    public static final int ASSUME_STOPPED = 40;
+    private static final int CAPACITY = 20;
+
+    private final float[] mPositions = new float[CAPACITY];
+    private final long[] mTimes = new long[CAPACITY];
+    //Index of the newest sample
+    private int mHead = -1;
+    private int mCount;
+
+    public void clear() {
+        mHead = -1;
+        mCount = 0;
+    }
+
+    /**
+     * @param timeMillis The sample time, samples must be added in order
+     * @param position   The position along the axis, in pixels
+     */
+    public void add(long timeMillis, float position) {
+        if (mCount > 0 && timeMillis - mTimes[mHead] > ASSUME_STOPPED) {
+            //Anything older is not part of this movement anymore
+            mCount = 0;
+        }
+        mHead = (mHead + 1) % CAPACITY;
+        mPositions[mHead] = position;
+        mTimes[mHead] = timeMillis;
+        if (mCount < CAPACITY) {
+            mCount++;
+        }
+    }
+
+    /**
+     * @return the velocity in pixels per second, 0 if there are not enough samples
+     */
+    public float getVelocity() {
+        if (mCount < 2) {
+            return 0;
+        }
+        final long newest = mTimes[mHead];
+        //Sums for the least squares fit with times relative to the newest sample (x) and positions (y)
+        //Doubles, screen coordinates squared don't fit well in a float
+        double sumX = 0;
+        double sumY = 0;
+        double sumXX = 0;
+        double sumXY = 0;
+        int n = 0;
+        int index = mHead;
+        for (int i = 0; i < mCount; i++) {
+            long age = newest - mTimes[index];
+            if (age > HORIZON) {
+                break;
+            }
+            double x = -age;
+            double y = mPositions[index];
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+            n++;
+            index = index == 0 ? CAPACITY - 1 : index - 1;
+        }
+        if (n < 2) {
+            return 0;
+        }
+        double denominator = n * sumXX - sumX * sumX;
+        if (denominator == 0) {
+            //All the samples at the same time
+            return 0;
+        }
+        //Slope is in px/ms
+        return (float) ((n * sumXY - sumX * sumY) / denominator * 1000);
+    }
+}
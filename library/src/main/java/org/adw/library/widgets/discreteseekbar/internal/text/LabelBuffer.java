@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.text;
+
+/**
+ * Small growable char buffer used to hold the indicator label.
+ * <p>
+ * The backing array is reused between calls so it can be handed directly to
+ * {@link android.widget.TextView#setText(char[], int, int)} without building a String.
+ * It will only grow (and thus allocate) when a longer label than any previous one is written.
+ * </p>
+ *
+ * @hide
+ */
+public final class LabelBuffer implements CharSequence {
+    private static final int DEFAULT_CAPACITY = 16;
+    private char[] mChars;
+    private int mLength;
+
+    public LabelBuffer() {
+        mChars = new char[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * The backing array. Only the first {@link #length()} chars are valid.
+     * <p>
+     * Do not keep a reference to it, it may be replaced when the buffer grows.
+     * </p>
+     */
+    public char[] getChars() {
+        return mChars;
+    }
+
+    public void clear() {
+        mLength = 0;
+    }
+
+    void ensureCapacity(int capacity) {
+        if (capacity > mChars.length) {
+            char[] chars = new char[Math.max(capacity, mChars.length * 2)];
+            System.arraycopy(mChars, 0, chars, 0, mLength);
+            mChars = chars;
+        }
+    }
+
+    void append(char c) {
+        ensureCapacity(mLength + 1);
+        mChars[mLength++] = c;
+    }
+
+    void append(char c, int count) {
+        ensureCapacity(mLength + count);
+        for (int i = 0; i < count; i++) {
+            mChars[mLength++] = c;
+        }
+    }
+
+    void append(char[] chars) {
+        ensureCapacity(mLength + chars.length);
+        System.arraycopy(chars, 0, mChars, mLength, chars.length);
+        mLength += chars.length;
+    }
+
+    void append(StringBuilder builder) {
+        int count = builder.length();
+        ensureCapacity(mLength + count);
+        builder.getChars(0, count, mChars, mLength);
+        mLength += count;
+    }
+
+    /**
+     * Replaces the current contents with the given text
+     */
+    public void set(CharSequence text) {
+        int count = text.length();
+        mLength = 0;
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            mChars[i] = text.charAt(i);
+        }
+        mLength = count;
+    }
+
+    @Override
+    public int length() {
+        return mLength;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= mLength) {
+            throw new IndexOutOfBoundsException("index=" + index + " length=" + mLength);
+        }
+        return mChars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > mLength || start > end) {
+            throw new IndexOutOfBoundsException("start=" + start + " end=" + end + " length=" + mLength);
+        }
+        return new String(mChars, start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(mChars, 0, mLength);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.text;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Cache of already transformed/formatted indicator labels.
+ * <p>
+ * For small ranges (the typical 0..100) labels are stored in a flat array indexed by <code>value - min</code>.
+ * Bigger ranges use a small LRU instead, so memory stays bounded.
+ * Both are filled lazily, as values are visited.
+ * </p>
+ * <p>
+ * The cache must be cleared when anything used to build the labels changes (range, transformer, format or Locale).
+ * </p>
+ *
+ * @hide
+ */
+public class LabelCache {
+    /**
+     * Maximum number of values for the flat array. Bigger ranges will use the LRU.
+     */
+    public static final int MAX_FLAT_SIZE = 1024;
+    private static final int LRU_SIZE = 64;
+
+    private Locale mLocale;
+    private long mMin;
+    private int mFlatSize;
+    private CharSequence[] mFlat;
+
+    //Plain arrays instead of a LinkedHashMap to avoid boxing the keys
+    private long[] mLruKeys;
+    private CharSequence[] mLruValues;
+    private long[] mLruStamps;
+    private int mLruCount;
+    private long mClock;
+
+    /**
+     * Drops every cached label and prepares the cache for the new range
+     */
+    public void reset(long min, long max, Locale locale) {
+        mLocale = locale;
+        mMin = min;
+        //Negative if the range length overflows
+        long size = max - min + 1;
+        if (size > 0 && size <= MAX_FLAT_SIZE) {
+            int flatSize = (int) size;
+            if (mFlat != null && mFlat.length >= flatSize) {
+                Arrays.fill(mFlat, null);
+            } else {
+                //Allocated on first put
+                mFlat = null;
+            }
+            mFlatSize = flatSize;
+        } else {
+            mFlat = null;
+            mFlatSize = 0;
+        }
+        clearLru();
+    }
+
+    /**
+     * Drops every cached label keeping the current range
+     */
+    public void clear() {
+        if (mFlat != null) {
+            Arrays.fill(mFlat, null);
+        }
+        clearLru();
+    }
+
+    public Locale getLocale() {
+        return mLocale;
+    }
+
+    public CharSequence get(long value) {
+        if (mFlatSize > 0) {
+            long index = value - mMin;
+            if (mFlat == null || index < 0 || index >= mFlatSize) {
+                return null;
+            }
+            return mFlat[(int) index];
+        }
+        for (int i = 0; i < mLruCount; i++) {
+            if (mLruKeys[i] == value) {
+                mLruStamps[i] = ++mClock;
+                return mLruValues[i];
+            }
+        }
+        return null;
+    }
+
+    public void put(long value, CharSequence label) {
+        if (mFlatSize > 0) {
+            long index = value - mMin;
+            if (index < 0 || index >= mFlatSize) {
+                return;
+            }
+            if (mFlat == null) {
+                mFlat = new CharSequence[mFlatSize];
+            }
+            mFlat[(int) index] = label;
+            return;
+        }
+        if (mLruKeys == null) {
+            mLruKeys = new long[LRU_SIZE];
+            mLruValues = new CharSequence[LRU_SIZE];
+            mLruStamps = new long[LRU_SIZE];
+        }
+        int slot = mLruCount;
+        if (slot == LRU_SIZE) {
+            //Evict the least recently used one
+            slot = 0;
+            for (int i = 1; i < LRU_SIZE; i++) {
+                if (mLruStamps[i] < mLruStamps[slot]) {
+                    slot = i;
+                }
+            }
+        } else {
+            mLruCount++;
+        }
+        mLruKeys[slot] = value;
+        mLruValues[slot] = label;
+        mLruStamps[slot] = ++mClock;
+    }
+
+    private void clearLru() {
+        if (mLruValues != null) {
+            Arrays.fill(mLruValues, null);
+        }
+        mLruCount = 0;
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.text;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Formatter;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A "compiled" version of the indicator formatter string.
+ * <p>
+ * {@link java.util.Formatter} parses the format string and boxes the value on every call,
+ * which generates a fair amount of garbage while dragging. This class parses the format once
+ * and then writes the digits straight into a reusable {@link LabelBuffer}.
+ * </p>
+ * <p>
+ * Only the integer conversion (<code>%d</code>, with the <code>-+ 0,(</code> flags and width),
+ * <code>%%</code> and <code>%n</code> are compiled. Anything else falls back to a
+ * reused {@link java.util.Formatter} so the output is always the same as {@link String#format(Locale, String, Object...)}.
+ * </p>
+ * <p>
+ * Digits, grouping separators and grouping sizes are resolved from the {@link java.util.Locale}
+ * at compile time, so you need to compile again if the Locale changes.
+ * </p>
+ *
+ * @hide
+ */
+public class LabelFormat {
+    //Same expression used by java.util.Formatter
+    private static final Pattern SPECIFIER = Pattern.compile("%(\\d+\\$)?([-#+ 0,(\\<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])");
+    //Long.MIN_VALUE has 19 digits
+    private static final int MAX_DIGITS = 19;
+
+    private static class Part {
+        //Text to be copied as is. If null, this part is the number.
+        char[] literal;
+        boolean leftJustify;
+        boolean plus;
+        boolean space;
+        boolean zeroPad;
+        boolean group;
+        boolean parentheses;
+        int width = -1;
+    }
+
+    private final String mPattern;
+    private final Locale mLocale;
+    private final Part[] mParts;
+    private final char[] mDigits = new char[MAX_DIGITS];
+    private char mZeroDigit;
+    private char mGroupingSeparator;
+    private int mGroupingSize;
+    //Used when the pattern contains anything we don't know how to compile
+    private Formatter mFallback;
+    private StringBuilder mFallbackBuilder;
+
+    private LabelFormat(String pattern, Locale locale, Part[] parts) {
+        mPattern = pattern;
+        mLocale = locale;
+        mParts = parts;
+        if (parts == null) {
+            mFallbackBuilder = new StringBuilder(pattern.length() + MAX_DIGITS);
+            mFallback = new Formatter(mFallbackBuilder, locale);
+        } else {
+            resolveSymbols(locale);
+        }
+    }
+
+    /**
+     * Parses the given format string
+     *
+     * @param pattern A {@link java.util.Formatter} format string taking one integer argument
+     * @param locale  The Locale used to translate digits and separators
+     */
+    public static LabelFormat compile(String pattern, Locale locale) {
+        return new LabelFormat(pattern, locale, parse(pattern));
+    }
+
+    public String getPattern() {
+        return mPattern;
+    }
+
+    public Locale getLocale() {
+        return mLocale;
+    }
+
+    /**
+     * @return true if this format falls back to {@link java.util.Formatter}
+     */
+    public boolean isFallback() {
+        return mParts == null;
+    }
+
+    /**
+     * Replaces the contents of the buffer with the formatted value
+     */
+    public void format(long value, LabelBuffer out) {
+        out.clear();
+        if (mParts == null) {
+            mFallbackBuilder.setLength(0);
+            //Keep the same argument type we used to pass so conversions like %x still work the same
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                mFallback.format(mPattern, (int) value);
+            } else {
+                mFallback.format(mPattern, value);
+            }
+            out.append(mFallbackBuilder);
+            return;
+        }
+        final Part[] parts = mParts;
+        for (int i = 0; i < parts.length; i++) {
+            Part part = parts[i];
+            if (part.literal != null) {
+                out.append(part.literal);
+            } else {
+                appendNumber(part, value, out);
+            }
+        }
+    }
+
+    /**
+     * Convenience method for non performance sensitive places
+     */
+    public String format(long value) {
+        LabelBuffer buffer = new LabelBuffer();
+        format(value, buffer);
+        return buffer.toString();
+    }
+
+    private void appendNumber(Part part, long value, LabelBuffer out) {
+        final boolean negative = value < 0;
+        final char zero = mZeroDigit;
+        final char[] digits = mDigits;
+        //Digits are generated from right to left.
+        //We work with negative remainders so Long.MIN_VALUE doesn't overflow
+        int count = 0;
+        long remaining = value;
+        do {
+            int digit = (int) (remaining % 10);
+            digits[count++] = (char) (zero + (negative ? -digit : digit));
+            remaining /= 10;
+        } while (remaining != 0);
+
+        int groupingSize = part.group ? mGroupingSize : 0;
+        int separators = groupingSize > 0 ? (count - 1) / groupingSize : 0;
+        int signLength = (negative || part.plus || part.space) ? 1 : 0;
+        int trailingLength = (negative && part.parentheses) ? 1 : 0;
+        int length = signLength + count + separators + trailingLength;
+        int zeros = part.zeroPad ? Math.max(0, part.width - length) : 0;
+        length += zeros;
+        int padding = Math.max(0, part.width - length);
+
+        if (!part.leftJustify) {
+            out.append(' ', padding);
+        }
+        if (negative) {
+            out.append(part.parentheses ? '(' : '-');
+        } else if (part.plus) {
+            out.append('+');
+        } else if (part.space) {
+            out.append(' ');
+        }
+        out.append(zero, zeros);
+        for (int i = count - 1; i >= 0; i--) {
+            out.append(digits[i]);
+            if (separators > 0 && i > 0 && i % groupingSize == 0) {
+                out.append(mGroupingSeparator);
+            }
+        }
+        if (trailingLength > 0) {
+            out.append(')');
+        }
+        if (part.leftJustify) {
+            out.append(' ', padding);
+        }
+    }
+
+    private void resolveSymbols(Locale locale) {
+        //This mimics what java.util.Formatter does for integers
+        if (locale == null || locale.equals(Locale.US)) {
+            mZeroDigit = '0';
+            mGroupingSeparator = ',';
+            mGroupingSize = 3;
+            return;
+        }
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        mZeroDigit = symbols.getZeroDigit();
+        mGroupingSeparator = symbols.getGroupingSeparator();
+        mGroupingSize = 3;
+        NumberFormat numberFormat = NumberFormat.getIntegerInstance(locale);
+        if (numberFormat instanceof DecimalFormat) {
+            DecimalFormat decimalFormat = (DecimalFormat) numberFormat;
+            mGroupingSize = decimalFormat.isGroupingUsed() ? decimalFormat.getGroupingSize() : 0;
+        }
+    }
+
+    /**
+     * @return the compiled parts, or null if the pattern needs the full {@link java.util.Formatter}
+     */
+    private static Part[] parse(String pattern) {
+        ArrayList<Part> parts = new ArrayList<Part>();
+        StringBuilder literal = new StringBuilder();
+        Matcher matcher = SPECIFIER.matcher(pattern);
+        int ordinaryIndex = 0;
+        int i = 0;
+        final int length = pattern.length();
+        while (i < length) {
+            int next = pattern.indexOf('%', i);
+            if (next < 0) {
+                literal.append(pattern, i, length);
+                break;
+            }
+            literal.append(pattern, i, next);
+            if (!matcher.find(next) || matcher.start() != next) {
+                //Malformed, let the Formatter throw the proper exception
+                return null;
+            }
+            String index = matcher.group(1);
+            String flags = matcher.group(2);
+            String width = matcher.group(3);
+            String precision = matcher.group(4);
+            String dateTime = matcher.group(5);
+            char conversion = matcher.group(6).charAt(0);
+            boolean hasModifiers = index != null || (flags != null && flags.length() > 0)
+                    || width != null || precision != null || dateTime != null;
+            if (conversion == '%' || conversion == 'n') {
+                if (hasModifiers) {
+                    return null;
+                }
+                literal.append(conversion == '%' ? "%" : System.getProperty("line.separator"));
+            } else if (conversion == 'd' && precision == null && dateTime == null) {
+                if (index != null) {
+                    if (!index.equals("1$")) {
+                        return null;
+                    }
+                } else if (++ordinaryIndex > 1) {
+                    //We only have one argument
+                    return null;
+                }
+                Part part = parseNumber(flags, width);
+                if (part == null) {
+                    return null;
+                }
+                if (literal.length() > 0) {
+                    parts.add(literalPart(literal));
+                    literal.setLength(0);
+                }
+                parts.add(part);
+            } else {
+                return null;
+            }
+            i = matcher.end();
+        }
+        if (literal.length() > 0) {
+            parts.add(literalPart(literal));
+        }
+        return parts.toArray(new Part[parts.size()]);
+    }
+
+    private static Part parseNumber(String flags, String width) {
+        Part part = new Part();
+        if (flags != null) {
+            for (int i = 0; i < flags.length(); i++) {
+                char flag = flags.charAt(i);
+                if (flags.indexOf(flag, i + 1) >= 0) {
+                    //Duplicated flags
+                    return null;
+                }
+                switch (flag) {
+                    case '-':
+                        part.leftJustify = true;
+                        break;
+                    case '+':
+                        part.plus = true;
+                        break;
+                    case ' ':
+                        part.space = true;
+                        break;
+                    case '0':
+                        part.zeroPad = true;
+                        break;
+                    case ',':
+                        part.group = true;
+                        break;
+                    case '(':
+                        part.parentheses = true;
+                        break;
+                    default:
+                        return null;
+                }
+            }
+        }
+        if (width != null) {
+            try {
+                part.width = Integer.parseInt(width);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        //Illegal combinations, the Formatter will throw for these
+        if ((part.plus && part.space) || (part.leftJustify && part.zeroPad)) {
+            return null;
+        }
+        if ((part.leftJustify || part.zeroPad) && part.width == -1) {
+            return null;
+        }
+        return part;
+    }
+
+    private static Part literalPart(StringBuilder text) {
+        Part part = new Part();
+        part.literal = new char[text.length()];
+        text.getChars(0, text.length(), part.literal, 0);
+        return part;
+    }
+}
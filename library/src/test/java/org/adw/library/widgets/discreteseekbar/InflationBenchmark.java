@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar;
+
+import android.app.Activity;
+import android.util.AttributeSet;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.AttributeSetBuilder;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Properties;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Measures how expensive it is to create DiscreteSeekBars, on the JVM (no device needed).
+ * <p>
+ * Layouts with 1, 10, 50 and 100 bars are built for the horizontal, vertical and range configurations,
+ * going through the same constructor the LayoutInflater uses. For each one it reports, per DiscreteSeekBar:
+ * </p>
+ * <ul>
+ * <li>constructor time (median of the measured rounds)</li>
+ * <li>allocated bytes</li>
+ * <li>retained heap (used heap difference while {@value #RETAINED_BARS} bars are still referenced)</li>
+ * </ul>
+ * <p>
+ * Results are checked against <code>src/test/resources/inflation-baseline.properties</code>, every
+ * configuration must have an entry there. Only the allocated and retained bytes can fail the test: they
+ * are the same on every machine, while times depend on the hardware the baseline was recorded on
+ * (and Robolectric times are not device times anyway), so slower times are only reported.
+ * It only runs with <code>-Pbenchmark</code>, see the library build.gradle.
+ * </p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class InflationBenchmark {
+    private static final int[] BAR_COUNTS = {1, 10, 50, 100};
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int GLOBAL_WARMUP_ROUNDS = 30;
+    private static final int ROUNDS = 15;
+    //Bars kept alive to measure the retained heap
+    private static final int RETAINED_BARS = 1000;
+    private static final int RETAINED_ROUNDS = 3;
+    //Allowed regressions against the baseline. Times are way noisier than memory, and only reported.
+    private static final float TIME_TOLERANCE = 0.5f;
+    private static final float MEMORY_TOLERANCE = 0.1f;
+
+    private enum Configuration {
+        HORIZONTAL,
+        VERTICAL,
+        RANGE
+    }
+
+    private static class Result {
+        long timeNs;
+        long allocatedBytes;
+        long retainedBytes;
+    }
+
+    private Activity mActivity;
+
+    @Before
+    public void setUp() {
+        assumeTrue("Run with -Pbenchmark", Boolean.getBoolean("dsb.benchmark"));
+        mActivity = Robolectric.buildActivity(Activity.class).setup().get();
+    }
+
+    @Test
+    public void inflate() throws IOException {
+        File baselineFile = new File(System.getProperty("dsb.benchmark.baseline"));
+        Properties baseline = load(baselineFile);
+        Properties results = new Properties();
+        StringBuilder regressions = new StringBuilder();
+        StringBuilder slowdowns = new StringBuilder();
+
+        //JIT the whole constructor path first, otherwise the first configuration pays for it
+        for (Configuration configuration : Configuration.values()) {
+            AttributeSet attrs = createAttributes(configuration);
+            for (int i = 0; i < GLOBAL_WARMUP_ROUNDS; i++) {
+                inflate(configuration, attrs, BAR_COUNTS[BAR_COUNTS.length - 1]);
+            }
+        }
+
+        System.out.println(String.format(Locale.US, "%-12s %5s %14s %16s %16s",
+                "config", "bars", "time ns/bar", "allocated B/bar", "retained B/bar"));
+        for (Configuration configuration : Configuration.values()) {
+            for (int bars : BAR_COUNTS) {
+                Result result = measure(configuration, bars);
+                System.out.println(String.format(Locale.US, "%-12s %5d %14d %16d %16d",
+                        configuration.name().toLowerCase(Locale.US), bars,
+                        result.timeNs, result.allocatedBytes, result.retainedBytes));
+
+                String key = configuration.name().toLowerCase(Locale.US) + "." + bars;
+                check(baseline, results, key + ".timeNs", result.timeNs, TIME_TOLERANCE, slowdowns);
+                check(baseline, results, key + ".allocatedBytes", result.allocatedBytes, MEMORY_TOLERANCE, regressions);
+                check(baseline, results, key + ".retainedBytes", result.retainedBytes, MEMORY_TOLERANCE, regressions);
+            }
+        }
+
+        if (slowdowns.length() > 0) {
+            System.out.println("Slower than the baseline (advisory, times depend on the machine):\n" + slowdowns);
+        }
+        if (Boolean.getBoolean("dsb.benchmark.updateBaseline")) {
+            store(results, baselineFile);
+            System.out.println("Baseline updated: " + baselineFile);
+        } else {
+            assertTrue("Regressions against the baseline:\n" + regressions, regressions.length() == 0);
+        }
+    }
+
+    private Result measure(Configuration configuration, int bars) {
+        AttributeSet attrs = createAttributes(configuration);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            inflate(configuration, attrs, bars);
+        }
+        long[] times = new long[ROUNDS];
+        long allocated = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            inflate(configuration, attrs, bars);
+            times[i] = System.nanoTime() - start;
+            //The minimum filters out anything allocated by lazy framework initialization
+            allocated = Math.min(allocated, threads.getThreadAllocatedBytes(threadId) - allocatedBefore);
+        }
+        Arrays.sort(times);
+
+        //Keep enough copies for the retained size to stand out of the heap noise
+        ViewGroup[] kept = new ViewGroup[(RETAINED_BARS + bars - 1) / bars];
+        long retained = Long.MAX_VALUE;
+        for (int round = 0; round < RETAINED_ROUNDS; round++) {
+            Arrays.fill(kept, null);
+            long usedBefore = usedHeap();
+            for (int i = 0; i < kept.length; i++) {
+                kept[i] = inflate(configuration, attrs, bars);
+            }
+            retained = Math.min(retained, Math.max(0, usedHeap() - usedBefore));
+        }
+
+        Result result = new Result();
+        result.timeNs = times[ROUNDS / 2] / bars;
+        result.allocatedBytes = allocated / bars;
+        result.retainedBytes = retained / (kept.length * kept[0].getChildCount());
+        return result;
+    }
+
+    private ViewGroup inflate(Configuration configuration, AttributeSet attrs, int bars) {
+        LinearLayout layout = new LinearLayout(mActivity);
+        boolean vertical = configuration == Configuration.VERTICAL;
+        layout.setOrientation(vertical ? LinearLayout.HORIZONTAL : LinearLayout.VERTICAL);
+        for (int i = 0; i < bars; i++) {
+            DiscreteSeekBar bar = new DiscreteSeekBar(mActivity, attrs);
+            layout.addView(bar, vertical
+                    ? new LinearLayout.LayoutParams(ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.MATCH_PARENT)
+                    : new LinearLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.WRAP_CONTENT));
+        }
+        return layout;
+    }
+
+    private AttributeSet createAttributes(Configuration configuration) {
+        AttributeSetBuilder builder = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.dsb_min, "0")
+                .addAttribute(R.attr.dsb_max, "100")
+                .addAttribute(R.attr.dsb_value, "25");
+        if (configuration == Configuration.VERTICAL) {
+            builder.addAttribute(R.attr.dsb_orientation, "vertical");
+        } else if (configuration == Configuration.RANGE) {
+            builder.addAttribute(R.attr.dsb_range, "true")
+                    .addAttribute(R.attr.dsb_upperValue, "75");
+        }
+        return builder.build();
+    }
+
+    /**
+     * The lowest used heap of a few collections: garbage left by finalizers or other threads only adds to it
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            System.runFinalization();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private static void check(Properties baseline, Properties results, String key, long value, float tolerance, StringBuilder report) {
+        results.setProperty(key, String.valueOf(value));
+        String expected = baseline.getProperty(key);
+        if (expected == null) {
+            //A new configuration must come with its baseline
+            report.append(key).append(": ").append(value).append(" (no baseline)\n");
+            return;
+        }
+        long limit = (long) (Long.parseLong(expected) * (1 + tolerance));
+        if (value > limit) {
+            report.append(key).append(": ").append(value)
+                    .append(" (baseline ").append(expected).append(")\n");
+        }
+    }
+
+    private static Properties load(File file) throws IOException {
+        Properties properties = new Properties();
+        if (file.exists()) {
+            InputStream in = new FileInputStream(file);
+            try {
+                properties.load(in);
+            } finally {
+                in.close();
+            }
+        }
+        return properties;
+    }
+
+    private static void store(Properties properties, File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            properties.store(out, "Baseline for InflationBenchmark, per DiscreteSeekBar instance. Times are advisory. "
+                    + "Regenerate with: ./gradlew :library:testDebugUnitTest -Pbenchmark -Pbenchmark.updateBaseline");
+        } finally {
+            out.close();
+        }
+    }
+}
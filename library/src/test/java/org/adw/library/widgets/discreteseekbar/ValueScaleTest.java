@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the mappings of every {@link ValueScale} stay consistent, monotonic and within the range
+ */
+public class ValueScaleTest {
+    private static final int AVAILABLE = 1000;
+    private static final long[] PIECEWISE_VALUES = {0, 10, 100, 1000};
+    private static final float[] PIECEWISE_POSITIONS = {0, 0.25f, 0.5f, 1};
+    private static final long[] LOOKUP_VALUES = {1, 2, 5, 10, 20, 50, 100};
+
+    private static class Case {
+        final String name;
+        final ValueScale scale;
+        final long min;
+        final long max;
+
+        Case(String name, ValueScale scale, long min, long max) {
+            this.name = name;
+            this.scale = scale;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public String toString() {
+            return name + " [" + min + ", " + max + "]";
+        }
+    }
+
+    /**
+     * Every scale with a range that gives each value at least one pixel
+     */
+    private static Case[] narrowCases() {
+        return new Case[]{
+                new Case("linear", ValueScale.linear(), 0, 100),
+                new Case("linear", ValueScale.linear(), -250, 250),
+                new Case("logarithmic", ValueScale.logarithmic(), 0, 100),
+                new Case("logarithmic", ValueScale.logarithmic(), -20, 80),
+                new Case("exponential(3)", ValueScale.exponential(3), 0, 100),
+                new Case("exponential(-2)", ValueScale.exponential(-2), -50, 50),
+                new Case("piecewise", ValueScale.piecewise(new long[]{0, 10, 50, 100}, PIECEWISE_POSITIONS), 0, 100),
+                new Case("lookup", ValueScale.values(LOOKUP_VALUES), 1, 100),
+        };
+    }
+
+    /**
+     * Ranges with many more values than pixels
+     */
+    private static Case[] wideCases() {
+        return new Case[]{
+                new Case("linear", ValueScale.linear(), 0, 1000000),
+                new Case("linear", ValueScale.linear(), Long.MIN_VALUE, -1),
+                new Case("linear", ValueScale.linear(), 0, Long.MAX_VALUE),
+                new Case("logarithmic", ValueScale.logarithmic(), 0, 1000000),
+                new Case("logarithmic", ValueScale.logarithmic(), 0, Long.MAX_VALUE),
+                new Case("exponential(5)", ValueScale.exponential(5), 0, 1000000),
+                new Case("exponential(-5)", ValueScale.exponential(-5), -1000000, 1000000),
+                new Case("piecewise", ValueScale.piecewise(PIECEWISE_VALUES, PIECEWISE_POSITIONS), 0, 1000),
+        };
+    }
+
+    private static Case[] allCases() {
+        Case[] narrow = narrowCases();
+        Case[] wide = wideCases();
+        Case[] all = new Case[narrow.length + wide.length];
+        System.arraycopy(narrow, 0, all, 0, narrow.length);
+        System.arraycopy(wide, 0, all, narrow.length, wide.length);
+        return all;
+    }
+
+    @Test
+    public void endsMapToTheTrackEnds() {
+        for (Case c : allCases()) {
+            assertEquals(c.toString(), 0, c.scale.valueToPosition(c.min, c.min, c.max, AVAILABLE));
+            assertEquals(c.toString(), AVAILABLE, c.scale.valueToPosition(c.max, c.min, c.max, AVAILABLE));
+            assertEquals(c.toString(), c.min, c.scale.positionToValue(0, AVAILABLE, c.min, c.max));
+            assertEquals(c.toString(), c.max, c.scale.positionToValue(AVAILABLE, AVAILABLE, c.min, c.max));
+        }
+    }
+
+    @Test
+    public void positionsToValuesAreMonotonicAndRoundTrip() {
+        for (Case c : allCases()) {
+            long previous = c.min;
+            for (int position = 0; position <= AVAILABLE; position++) {
+                long value = c.scale.positionToValue(position, AVAILABLE, c.min, c.max);
+                String message = c + " position " + position + " value " + value;
+                assertTrue(message, value >= previous && value <= c.max);
+                //The position of that value gives the same value back
+                int back = c.scale.valueToPosition(value, c.min, c.max, AVAILABLE);
+                assertEquals(message, value, c.scale.positionToValue(back, AVAILABLE, c.min, c.max));
+                previous = value;
+            }
+        }
+    }
+
+    @Test
+    public void valuesToPositionsAreMonotonicAndRoundTrip() {
+        for (Case c : narrowCases()) {
+            int previous = 0;
+            for (long value = c.min; value <= c.max; value++) {
+                long allowed = c.scale.snap(value, c.min, c.max);
+                int position = c.scale.valueToPosition(value, c.min, c.max, AVAILABLE);
+                String message = c + " value " + value + " position " + position;
+                assertTrue(message, position >= previous && position <= AVAILABLE);
+                assertEquals(message, allowed, c.scale.positionToValue(position, AVAILABLE, c.min, c.max));
+                previous = position;
+            }
+        }
+    }
+
+    @Test
+    public void fractionsAreMonotonic() {
+        for (Case c : allCases()) {
+            double previous = -1;
+            for (int i = 0; i <= 100; i++) {
+                long value = c.min + (long) ((double) c.max / 100 * i - (double) c.min / 100 * i);
+                value = Math.max(c.min, Math.min(c.max, value));
+                double fraction = c.scale.valueToFraction(value, c.min, c.max);
+                assertTrue(c + " value " + value, fraction >= previous && fraction >= 0 && fraction <= 1);
+                previous = fraction;
+            }
+        }
+    }
+
+    @Test
+    public void stepsStopAtTheEnds() {
+        for (Case c : allCases()) {
+            long increment = Math.max(1, (c.max / 20 - c.min / 20));
+            assertEquals(c.toString(), c.max, c.scale.step(c.max, 1, increment, c.min, c.max));
+            assertEquals(c.toString(), c.max, c.scale.step(c.max, 100, increment, c.min, c.max));
+            assertEquals(c.toString(), c.min, c.scale.step(c.min, -1, increment, c.min, c.max));
+            assertEquals(c.toString(), c.min, c.scale.step(c.min, -100, increment, c.min, c.max));
+            assertTrue(c.toString(), c.scale.step(c.min, 1, increment, c.min, c.max) > c.min);
+            assertTrue(c.toString(), c.scale.step(c.max, -1, increment, c.min, c.max) < c.max);
+        }
+    }
+
+    @Test
+    public void stepsWalkTheWholeRange() {
+        for (Case c : allCases()) {
+            long increment = Math.max(1, (c.max / 20 - c.min / 20));
+            long value = c.min;
+            int steps = 0;
+            while (value < c.max) {
+                long next = c.scale.step(value, 1, increment, c.min, c.max);
+                assertTrue(c + " from " + value, next > value && next <= c.max);
+                assertTrue(c + " back from " + next, c.scale.step(next, -1, increment, c.min, c.max) < next);
+                value = next;
+                assertTrue(c.toString(), ++steps <= 1000);
+            }
+        }
+    }
+
+    @Test
+    public void lookupStepsMoveOneValue() {
+        ValueScale scale = ValueScale.values(LOOKUP_VALUES);
+        for (int i = 0; i < LOOKUP_VALUES.length; i++) {
+            long value = LOOKUP_VALUES[i];
+            long up = LOOKUP_VALUES[Math.min(i + 1, LOOKUP_VALUES.length - 1)];
+            long down = LOOKUP_VALUES[Math.max(i - 1, 0)];
+            assertEquals(up, scale.step(value, 1, 1, 1, 100));
+            assertEquals(down, scale.step(value, -1, 1, 1, 100));
+        }
+        assertEquals(2, scale.snap(3, 1, 100));
+        assertEquals(10, scale.snap(8, 1, 100));
+        //Ties go to the bigger value
+        assertEquals(10, ValueScale.values(0, 10).snap(5, 0, 10));
+        assertEquals(100, scale.snap(1000, 1, 100));
+        assertEquals(1, scale.snap(-1000, 1, 100));
+    }
+
+    @Test
+    public void ticksEndAtMax() {
+        for (Case c : allCases()) {
+            long interval = Math.max(1, c.max / 7 - c.min / 7);
+            if (c.min > Long.MIN_VALUE) {
+                assertEquals(c.toString(), c.min, c.scale.nextTick(c.min - 1, interval, c.min, c.max));
+            }
+            assertEquals(c.toString(), c.max, c.scale.nextTick(c.max, interval, c.min, c.max));
+            long tick = c.min;
+            int ticks = 0;
+            while (tick < c.max) {
+                long next = c.scale.nextTick(tick, interval, c.min, c.max);
+                assertTrue(c + " after " + tick, next > tick && next <= c.max);
+                tick = next;
+                assertTrue(c.toString(), ++ticks <= 100);
+            }
+        }
+    }
+
+    @Test
+    public void linearTicks() {
+        ValueScale scale = ValueScale.linear();
+        assertEquals(30, scale.nextTick(0, 30, 0, 100));
+        assertEquals(60, scale.nextTick(30, 30, 0, 100));
+        assertEquals(60, scale.nextTick(45, 30, 0, 100));
+        assertEquals(90, scale.nextTick(60, 30, 0, 100));
+        assertEquals(100, scale.nextTick(90, 30, 0, 100));
+        assertEquals(100, scale.nextTick(99, 30, 0, 100));
+        assertEquals(100, scale.nextTick(100, 30, 0, 100));
+        //No overflow at the end of the widest range
+        assertEquals(Long.MAX_VALUE, scale.nextTick(Long.MAX_VALUE - 1, Long.MAX_VALUE / 2, 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void lookupTicks() {
+        ValueScale scale = ValueScale.values(LOOKUP_VALUES);
+        //Every second allowed value
+        assertEquals(5, scale.nextTick(1, 2, 1, 100));
+        assertEquals(5, scale.nextTick(2, 2, 1, 100));
+        assertEquals(20, scale.nextTick(5, 2, 1, 100));
+        assertEquals(100, scale.nextTick(20, 2, 1, 100));
+        assertEquals(100, scale.nextTick(100, 2, 1, 100));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exponentialNeedsCurvature() {
+        ValueScale.exponential(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void piecewiseNeedsAscendingValues() {
+        ValueScale.piecewise(new long[]{0, 10, 5}, new float[]{0, 0.5f, 1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void lookupNeedsAscendingValues() {
+        ValueScale.values(1, 5, 5);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.math;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the {@link RangeConstraints} behaviors, the gap and span relaxation and {@link RangeConstraints#normalize}
+ */
+public class RangeConstraintsTest {
+    private static final long MIN = 0;
+    private static final long MAX = 100;
+
+    private static RangeConstraints constraints(int behavior, long minGap, long maxSpan) {
+        RangeConstraints constraints = new RangeConstraints();
+        constraints.setBehavior(behavior);
+        constraints.setMinGap(minGap);
+        constraints.setMaxSpan(maxSpan);
+        return constraints;
+    }
+
+    private static long[] resolve(RangeConstraints constraints, long[] values, int index, long wanted, int expectedIndex) {
+        long[] result = values.clone();
+        assertEquals(expectedIndex, constraints.resolve(result, index, wanted, MIN, MAX));
+        return result;
+    }
+
+    @Test
+    public void singleThumbIsOnlyClamped() {
+        RangeConstraints constraints = constraints(RangeConstraints.BLOCK, 10, 5);
+        assertArrayEquals(new long[]{100}, resolve(constraints, new long[]{50}, 0, 200, 0));
+        assertArrayEquals(new long[]{30}, resolve(constraints, new long[]{50}, 0, 30, 0));
+    }
+
+    @Test
+    public void blockStopsAtTheGap() {
+        RangeConstraints constraints = constraints(RangeConstraints.BLOCK, 10, Long.MAX_VALUE);
+        long[] values = {20, 60};
+        assertArrayEquals(new long[]{35, 60}, resolve(constraints, values, 0, 35, 0));
+        assertArrayEquals(new long[]{50, 60}, resolve(constraints, values, 0, 80, 0));
+        assertArrayEquals(new long[]{20, 30}, resolve(constraints, values, 1, 10, 1));
+        assertArrayEquals(new long[]{20, 100}, resolve(constraints, values, 1, 100, 1));
+        //A middle thumb is blocked on both sides
+        long[] three = {20, 50, 80};
+        assertArrayEquals(new long[]{20, 30, 80}, resolve(constraints, three, 1, 0, 1));
+        assertArrayEquals(new long[]{20, 70, 80}, resolve(constraints, three, 1, 100, 1));
+        assertEquals(30, constraints.getLowerLimit(three, 1, MIN, MAX));
+        assertEquals(70, constraints.getUpperLimit(three, 1, MIN, MAX));
+    }
+
+    @Test
+    public void blockStopsAtTheSpan() {
+        RangeConstraints constraints = constraints(RangeConstraints.BLOCK, 0, 30);
+        long[] values = {20, 40};
+        assertArrayEquals(new long[]{20, 50}, resolve(constraints, values, 1, 90, 1));
+        assertArrayEquals(new long[]{10, 40}, resolve(constraints, values, 0, 0, 0));
+        assertEquals(10, constraints.getLowerLimit(values, 0, MIN, MAX));
+        assertEquals(50, constraints.getUpperLimit(values, 1, MIN, MAX));
+    }
+
+    @Test
+    public void pushMovesTheNeighbours() {
+        RangeConstraints constraints = constraints(RangeConstraints.PUSH, 5, Long.MAX_VALUE);
+        long[] values = {20, 40, 60};
+        assertArrayEquals(new long[]{70, 75, 80}, resolve(constraints, values, 0, 70, 0));
+        assertArrayEquals(new long[]{15, 20, 60}, resolve(constraints, values, 1, 20, 1));
+        //Only as far as the others fit
+        assertArrayEquals(new long[]{90, 95, 100}, resolve(constraints, values, 0, 100, 0));
+        assertArrayEquals(new long[]{0, 5, 10}, resolve(constraints, values, 2, 0, 2));
+        assertEquals(5, constraints.getLowerLimit(values, 1, MIN, MAX));
+        assertEquals(95, constraints.getUpperLimit(values, 1, MIN, MAX));
+    }
+
+    @Test
+    public void pushDragsTheOtherEndAlongTheSpan() {
+        RangeConstraints constraints = constraints(RangeConstraints.PUSH, 0, 30);
+        assertArrayEquals(new long[]{50, 80}, resolve(constraints, new long[]{20, 40}, 1, 80, 1));
+        assertArrayEquals(new long[]{0, 30}, resolve(constraints, new long[]{50, 80}, 0, 0, 0));
+        //The thumbs in between are pushed by the dragged end
+        RangeConstraints withGap = constraints(RangeConstraints.PUSH, 5, 30);
+        assertArrayEquals(new long[]{60, 65, 90}, resolve(withGap, new long[]{20, 30, 40}, 2, 90, 2));
+        assertArrayEquals(new long[]{0, 25, 30}, resolve(withGap, new long[]{60, 80, 90}, 0, 0, 0));
+    }
+
+    @Test
+    public void swapPassesTheNeighbours() {
+        RangeConstraints constraints = constraints(RangeConstraints.SWAP, 0, Long.MAX_VALUE);
+        assertArrayEquals(new long[]{50, 80}, resolve(constraints, new long[]{20, 50}, 0, 80, 1));
+        assertArrayEquals(new long[]{10, 20, 50}, resolve(constraints, new long[]{20, 50, 80}, 2, 10, 0));
+        assertArrayEquals(new long[]{20, 50, 60}, resolve(constraints, new long[]{20, 30, 50}, 1, 60, 2));
+        //Ties don't swap
+        assertArrayEquals(new long[]{50, 50}, resolve(constraints, new long[]{20, 50}, 0, 50, 0));
+        assertEquals(MIN, constraints.getLowerLimit(new long[]{20, 50}, 1, MIN, MAX));
+        assertEquals(MAX, constraints.getUpperLimit(new long[]{20, 50}, 0, MIN, MAX));
+    }
+
+    @Test
+    public void swapKeepsTheGapOnTheOtherSide() {
+        RangeConstraints constraints = constraints(RangeConstraints.SWAP, 10, Long.MAX_VALUE);
+        assertArrayEquals(new long[]{50, 60}, resolve(constraints, new long[]{20, 50}, 0, 55, 1));
+        assertArrayEquals(new long[]{40, 50}, resolve(constraints, new long[]{50, 80}, 1, 45, 0));
+    }
+
+    @Test
+    public void swapBlocksWhenThereIsNoRoomOnTheOtherSide() {
+        RangeConstraints constraints = constraints(RangeConstraints.SWAP, 10, Long.MAX_VALUE);
+        //Past the thumb at 95 there's no room for the gap before max
+        assertArrayEquals(new long[]{85, 95}, resolve(constraints, new long[]{0, 95}, 0, 100, 0));
+        assertArrayEquals(new long[]{5, 15}, resolve(constraints, new long[]{5, 90}, 1, 0, 1));
+        //With room for the gap it swaps, but the span still stops it on the other side
+        RangeConstraints withSpan = constraints(RangeConstraints.SWAP, 0, 20);
+        assertArrayEquals(new long[]{60, 80}, resolve(withSpan, new long[]{40, 60}, 0, 90, 1));
+    }
+
+    @Test
+    public void gapBiggerThanTheRangeIsRelaxed() {
+        RangeConstraints constraints = constraints(RangeConstraints.BLOCK, 1000, Long.MAX_VALUE);
+        //Three thumbs in [0, 100] can be 50 apart at most
+        long[] values = {10, 10, 10};
+        constraints.normalize(values, MIN, MAX);
+        assertArrayEquals(new long[]{0, 50, 100}, values);
+        assertArrayEquals(new long[]{0, 50, 100}, resolve(constraints, values, 1, 80, 1));
+        RangeConstraints push = constraints(RangeConstraints.PUSH, 1000, Long.MAX_VALUE);
+        assertArrayEquals(new long[]{0, 50, 100}, resolve(push, values, 0, 100, 0));
+    }
+
+    @Test
+    public void spanSmallerThanTheGapsIsRelaxed() {
+        RangeConstraints constraints = constraints(RangeConstraints.BLOCK, 10, 5);
+        long[] values = {0, 50};
+        constraints.normalize(values, MIN, MAX);
+        assertArrayEquals(new long[]{0, 10}, values);
+        assertArrayEquals(new long[]{0, 10}, resolve(constraints, values, 1, 80, 1));
+    }
+
+    @Test
+    public void normalizeMovesTheUpperThumbs() {
+        RangeConstraints constraints = constraints(RangeConstraints.BLOCK, 5, Long.MAX_VALUE);
+        long[] values = {10, 12, 14};
+        constraints.normalize(values, MIN, MAX);
+        assertArrayEquals(new long[]{10, 15, 20}, values);
+        //Unless there's no room left above
+        values = new long[]{98, 99, 100};
+        constraints.normalize(values, MIN, MAX);
+        assertArrayEquals(new long[]{90, 95, 100}, values);
+        RangeConstraints span = constraints(RangeConstraints.BLOCK, 0, 20);
+        values = new long[]{0, 50, 90};
+        span.normalize(values, MIN, MAX);
+        assertArrayEquals(new long[]{0, 20, 20}, values);
+    }
+
+    @Test
+    public void everyBehaviorKeepsTheConstraints() {
+        Random random = new Random(7);
+        int[] behaviors = {RangeConstraints.BLOCK, RangeConstraints.PUSH, RangeConstraints.SWAP};
+        for (int round = 0; round < 2000; round++) {
+            int count = 2 + random.nextInt(4);
+            long gap = random.nextInt(40);
+            long span = random.nextBoolean() ? Long.MAX_VALUE : random.nextInt(120);
+            RangeConstraints constraints = constraints(behaviors[round % behaviors.length], gap, span);
+            long[] values = new long[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = random.nextInt((int) (MAX + 1));
+            }
+            Arrays.sort(values);
+            constraints.normalize(values, MIN, MAX);
+            assertValid(constraints, values, "normalized");
+            for (int move = 0; move < 20; move++) {
+                int index = random.nextInt(count);
+                long wanted = random.nextInt((int) (MAX + 1));
+                String before = Arrays.toString(values);
+                int moved = constraints.resolve(values, index, wanted, MIN, MAX);
+                String message = before + " thumb " + index + " to " + wanted + " behavior " + constraints.getBehavior()
+                        + " gap " + gap + " span " + span + " gave " + Arrays.toString(values);
+                assertTrue(message, moved >= 0 && moved < count);
+                assertTrue(message, values[moved] >= constraints.getLowerLimit(values, moved, MIN, MAX)
+                        || constraints.getBehavior() == RangeConstraints.PUSH);
+                assertValid(constraints, values, message);
+            }
+        }
+    }
+
+    private static void assertValid(RangeConstraints constraints, long[] values, String message) {
+        final int last = values.length - 1;
+        long gap = Math.min(constraints.getMinGap(), (MAX - MIN) / last);
+        long span = Math.max(constraints.getMaxSpan(), gap * last);
+        assertTrue(message, values[0] >= MIN && values[last] <= MAX);
+        for (int i = 1; i <= last; i++) {
+            assertTrue(message, values[i] - values[i - 1] >= gap);
+        }
+        assertTrue(message, values[last] - values[0] <= span);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownBehavior() {
+        new RangeConstraints().setBehavior(3);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.math;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link TrackMath#mulDiv(long, long, long)} against {@link BigInteger}
+ */
+public class TrackMathTest {
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+    private static final long[] EDGES = {
+            0, 1, 2, 3, -1, -2, -3,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, 0x7fffffffL + 1, 0xffffffffL, 0xffffffffL + 1,
+            Long.MAX_VALUE, Long.MAX_VALUE - 1, Long.MAX_VALUE / 2, Long.MAX_VALUE / 2 + 1,
+            Long.MIN_VALUE, Long.MIN_VALUE + 1, Long.MIN_VALUE / 2, Long.MIN_VALUE / 2 - 1,
+    };
+
+    /**
+     * a * b / c rounded to the nearest integer, halves away from zero. Null if it doesn't fit in a long.
+     */
+    private static Long expected(long a, long b, long c) {
+        BigInteger product = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b));
+        BigInteger divisor = BigInteger.valueOf(c);
+        BigInteger[] division = product.abs().divideAndRemainder(divisor);
+        BigInteger quotient = division[0];
+        if (division[1].shiftLeft(1).compareTo(divisor) >= 0) {
+            quotient = quotient.add(BigInteger.ONE);
+        }
+        if (product.signum() < 0) {
+            quotient = quotient.negate();
+        }
+        if (quotient.compareTo(LONG_MIN) < 0 || quotient.compareTo(LONG_MAX) > 0) {
+            return null;
+        }
+        return quotient.longValue();
+    }
+
+    private static boolean check(long a, long b, long c) {
+        Long expected = expected(a, b, c);
+        if (expected == null) {
+            return false;
+        }
+        assertEquals(a + " * " + b + " / " + c, expected.longValue(), TrackMath.mulDiv(a, b, c));
+        return true;
+    }
+
+    @Test
+    public void mulDivEdges() {
+        int checked = 0;
+        for (long a : EDGES) {
+            for (long b : EDGES) {
+                for (long c : EDGES) {
+                    if (c > 0 && check(a, b, c)) {
+                        checked++;
+                    }
+                }
+            }
+        }
+        assertTrue(checked > 500);
+    }
+
+    @Test
+    public void mulDivNearTheLimits() {
+        //The largest results that still fit
+        check(Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+        check(Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+        check(Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE);
+        check(Long.MIN_VALUE, 1, 1);
+        check(Long.MIN_VALUE, -1, 2);
+        check(Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1);
+        check(Long.MAX_VALUE, 1000, 1001);
+        check(Long.MIN_VALUE + 1, 999, 1000);
+        //Track positions of the widest range
+        check(Long.MAX_VALUE, 1080, Long.MAX_VALUE);
+        check(Long.MAX_VALUE - 1, 1080, Long.MAX_VALUE);
+        check(Long.MAX_VALUE, 540, 1080);
+    }
+
+    @Test
+    public void mulDivRoundingBoundaries() {
+        long[] divisors = {2, 3, 7, 1000, 0xffffffffL, 1L << 40, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long c : divisors) {
+            //Products just below, at, and just above the halves of c, in both paths and with every sign
+            long[] quotients = {0, 1, 12345, 1L << 31, Long.MAX_VALUE / c - 1};
+            for (long q : quotients) {
+                BigInteger base = BigInteger.valueOf(q).multiply(BigInteger.valueOf(c))
+                        .add(BigInteger.valueOf(c / 2));
+                for (int delta = -1; delta <= 1; delta++) {
+                    BigInteger product = base.add(BigInteger.valueOf(delta));
+                    if (product.signum() < 0 || product.bitLength() > 63) {
+                        continue;
+                    }
+                    long a = product.longValue();
+                    check(a, 1, c);
+                    check(-a, 1, c);
+                    check(a, -1, c);
+                    check(-a, -1, c);
+                    if ((a & 1) == 0) {
+                        check(a / 2, 2, c);
+                        check(-(a / 2), 2, c);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void mulDivRandom() {
+        Random random = new Random(42);
+        int checked = 0;
+        for (int i = 0; i < 200000; i++) {
+            long a = random.nextLong() >> random.nextInt(64);
+            long b = random.nextLong() >> random.nextInt(64);
+            long c = (random.nextLong() >>> 1) >> random.nextInt(63);
+            if (c > 0 && check(a, b, c)) {
+                checked++;
+            }
+        }
+        assertTrue(checked > 50000);
+    }
+
+    @Test
+    public void fitRangeEnds() {
+        assertEquals(1, TrackMath.fitMax(0, -5));
+        assertEquals(100, TrackMath.fitMax(0, 100));
+        assertEquals(-1, TrackMath.fitMax(Long.MIN_VALUE, 100));
+        assertEquals(Long.MAX_VALUE, TrackMath.fitMax(0, Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, TrackMath.fitMax(Long.MAX_VALUE - 1, 0));
+        assertEquals(-1, TrackMath.fitMin(5, 0));
+        assertEquals(0, TrackMath.fitMin(-100, Long.MAX_VALUE));
+        assertEquals(Long.MIN_VALUE, TrackMath.fitMin(Long.MIN_VALUE, -1));
+        assertEquals(Long.MIN_VALUE, TrackMath.fitMin(0, Long.MIN_VALUE + 1));
+        //Every fixed range has a length that fits
+        for (long end : EDGES) {
+            for (long other : EDGES) {
+                if (end != Long.MAX_VALUE) {
+                    long max = TrackMath.fitMax(end, other);
+                    assertTrue(max > end && max - end > 0);
+                }
+                if (end != Long.MIN_VALUE) {
+                    long min = TrackMath.fitMin(other, end);
+                    assertTrue(min < end && end - min > 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void positionsOfTheWidestRange() {
+        long min = Long.MIN_VALUE;
+        long max = -1;
+        assertEquals(0, TrackMath.valueToPosition(min, min, max, 1000));
+        assertEquals(1000, TrackMath.valueToPosition(max, min, max, 1000));
+        assertEquals(min, TrackMath.positionToValue(0, 1000, min, max, false));
+        assertEquals(max, TrackMath.positionToValue(1000, 1000, min, max, false));
+        long previous = min;
+        for (int position = 1; position <= 1000; position++) {
+            long value = TrackMath.positionToValue(position, 1000, min, max, false);
+            assertEquals(position, TrackMath.valueToPosition(value, min, max, 1000));
+            assertTrue(value > previous);
+            previous = value;
+        }
+    }
+}
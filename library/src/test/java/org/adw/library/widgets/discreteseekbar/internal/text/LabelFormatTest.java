@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) Gustavo Claramunt (AnderWeb) 2014.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.adw.library.widgets.discreteseekbar.internal.text;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks {@link LabelFormat} always produces the same output as {@link String#format(Locale, String, Object...)}
+ */
+public class LabelFormatTest {
+    private static final long[] VALUES = {
+            0, 1, -1, 7, -7, 999, -999, 1000, -1000, 12345, -12345, 123456789, -123456789,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, 1234567890123L, -1234567890123L, Long.MAX_VALUE, Long.MIN_VALUE,
+    };
+    private static final Locale[] LOCALES = {
+            Locale.US, Locale.GERMANY, Locale.FRANCE, new Locale("de", "CH"), new Locale("hi", "IN"),
+            new Locale("ar", "EG"), new Locale("fa", "IR"), new Locale("th", "TH", "TH"),
+    };
+    //Every one of these must be compiled
+    private static final String[] COMPILED = {
+            "%d", "%,d", "%+d", "% d", "%(d", "%(,d", "%+,(d", "% (d",
+            "%10d", "%1d", "%-10d|", "%010d", "%,015d", "%+010d", "%(010d", "%-+,12d|", "% 8d",
+            "%1$d", "[%1$,d]", "Value: %05d%%", "%d%n", "%%%d%%", "no number at all", "",
+    };
+    //Every one of these must fall back to the Formatter
+    private static final String[] FALLBACK = {
+            "%x", "%X", "%o", "%s", "%S", "%08X", "%#x", "%1$d %1$x", "%10.3s", "%b",
+    };
+    //Invalid for a single integer argument, the Formatter must throw the same exception
+    private static final String[] INVALID = {
+            "%d %d", "%2$d", "%<d", "%.1f", "%-d", "%0d", "%+ d", "%-05d", "%--5d", "%.2d", "%", "%q",
+    };
+
+    private static String expected(Locale locale, String pattern, long value) {
+        //The same argument type LabelFormat passes to its fallback
+        if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            return String.format(locale, pattern, (int) value);
+        }
+        return String.format(locale, pattern, value);
+    }
+
+    private static void assertSameOutput(Locale locale, String pattern) {
+        LabelFormat format = LabelFormat.compile(pattern, locale);
+        LabelBuffer buffer = new LabelBuffer();
+        for (long value : VALUES) {
+            String message = locale + " \"" + pattern + "\" " + value;
+            String expected = expected(locale, pattern, value);
+            assertEquals(message, expected, format.format(value));
+            //Reusing the same buffer for values of every length
+            format.format(value, buffer);
+            assertEquals(message, expected, buffer.toString());
+            assertEquals(message, expected.length(), buffer.length());
+        }
+    }
+
+    @Test
+    public void compiledPatternsMatchTheFormatter() {
+        for (Locale locale : LOCALES) {
+            for (String pattern : COMPILED) {
+                assertFalse(pattern, LabelFormat.compile(pattern, locale).isFallback());
+                assertSameOutput(locale, pattern);
+            }
+        }
+    }
+
+    @Test
+    public void unsupportedPatternsFallBackToTheFormatter() {
+        for (Locale locale : LOCALES) {
+            for (String pattern : FALLBACK) {
+                assertTrue(pattern, LabelFormat.compile(pattern, locale).isFallback());
+                assertSameOutput(locale, pattern);
+            }
+        }
+    }
+
+    @Test
+    public void invalidPatternsThrowLikeTheFormatter() {
+        for (String pattern : INVALID) {
+            Class<? extends Exception> expected = null;
+            try {
+                String.format(Locale.US, pattern, 5);
+            } catch (IllegalArgumentException e) {
+                expected = e.getClass();
+            }
+            assertTrue("The Formatter accepts " + pattern, expected != null);
+            LabelFormat format = LabelFormat.compile(pattern, Locale.US);
+            assertTrue(pattern, format.isFallback());
+            try {
+                format.format(5);
+                fail("No exception for " + pattern);
+            } catch (IllegalArgumentException e) {
+                assertEquals(pattern, expected, e.getClass());
+            }
+        }
+    }
+
+    @Test
+    public void nullLocaleMatchesTheFormatter() {
+        assertEquals(String.format((Locale) null, "%,d", 1234567), LabelFormat.compile("%,d", null).format(1234567));
+    }
+
+    @Test
+    public void bufferKeepsOnlyTheLastLabel() {
+        LabelFormat format = LabelFormat.compile("%,d", Locale.US);
+        LabelBuffer buffer = new LabelBuffer();
+        format.format(Long.MIN_VALUE, buffer);
+        format.format(5, buffer);
+        assertEquals("5", buffer.toString());
+        assertEquals(1, buffer.length());
+        assertEquals('5', buffer.charAt(0));
+        assertEquals("5", buffer.subSequence(0, 1).toString());
+        buffer.set("12.5");
+        assertEquals("12.5", buffer.toString());
+    }
+}